@@ -26,10 +26,19 @@ dependencies {
     implementation("com.auth0:java-jwt:4.4.0")
     compileOnly("org.slf4j:slf4j-api:2.0.7")
 
+    testImplementation("dev.arbjerg:lavaplayer:2.0.4")
+    testImplementation("org.slf4j:slf4j-api:2.0.7")
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+
     lyricsDependency("protocol")
     lyricsDependency("client")
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
 publishing {
     publications {
         create<MavenPublication>("maven") {
@@ -54,6 +54,13 @@ public class ExtendedAudioPlaylist extends BasicAudioPlaylist {
 		return this.totalTracks;
 	}
 
+	/**
+	 * @return a playlist with the same metadata but the given tracks, subclasses return their own type
+	 */
+	public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+		return new ExtendedAudioPlaylist(this.getName(), tracks, this.type, this.url, this.artworkURL, this.author, this.totalTracks);
+	}
+
 	public enum Type {
 		ALBUM("album"),
 		PLAYLIST("playlist"),
@@ -1,16 +1,108 @@
 package com.github.topi314.lavasrc;
 
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.tools.DataFormatTools;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public abstract class ExtendedAudioSourceManager implements AudioSourceManager {
 
+	private static final Pattern TRACKING_PARAMETER_PATTERN = Pattern.compile("[?&](si|utm_[a-z]+)=[^&#]*");
+
+	private final Map<String, CompletableFuture<AudioItem>> pendingLoads = new ConcurrentHashMap<>();
+
+	/**
+	 * Identical concurrent loads, e.g. a popular playlist link which is queued by many players at once, share a single load.
+	 * The first caller runs {@link #loadReference(AudioPlayerManager, AudioReference)}, the others wait for it and get their own copies of the loaded tracks.
+	 */
+	@Override
+	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+		var key = this.normalizeIdentifier(reference.identifier);
+		var future = new CompletableFuture<AudioItem>();
+		var pending = this.pendingLoads.putIfAbsent(key, future);
+		if (pending != null) {
+			try {
+				return copyItem(pending.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		}
+
+		try {
+			var item = this.loadReference(manager, reference);
+			future.complete(item);
+			return item;
+		} catch (RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.pendingLoads.remove(key, future);
+		}
+	}
+
+	/**
+	 * Loads the item for the reference, see {@link AudioSourceManager#loadItem(AudioPlayerManager, AudioReference)}.
+	 */
+	@Nullable
+	protected abstract AudioItem loadReference(AudioPlayerManager manager, AudioReference reference);
+
+	/**
+	 * @return the key under which concurrent loads of the identifier are shared, by default without share tracking parameters
+	 */
+	protected String normalizeIdentifier(String identifier) {
+		var normalized = identifier.trim();
+		if (normalized.startsWith("http://") || normalized.startsWith("https://")) {
+			normalized = TRACKING_PARAMETER_PATTERN.matcher(normalized).replaceAll("");
+		}
+		return normalized;
+	}
+
+	/**
+	 * Tracks can only be played once, so every caller sharing a load gets clones of them.
+	 */
+	@Nullable
+	protected static AudioItem copyItem(@Nullable AudioItem item) {
+		if (item instanceof AudioTrack) {
+			return ((AudioTrack) item).makeClone();
+		}
+		if (item instanceof AudioPlaylist) {
+			var playlist = (AudioPlaylist) item;
+			var tracks = new ArrayList<AudioTrack>(playlist.getTracks().size());
+			for (var track : playlist.getTracks()) {
+				tracks.add(track.makeClone());
+			}
+			if (playlist instanceof ExtendedAudioPlaylist) {
+				return ((ExtendedAudioPlaylist) playlist).copyWithTracks(tracks);
+			}
+			var selectedTrack = playlist.getSelectedTrack();
+			var selectedIndex = selectedTrack == null ? -1 : playlist.getTracks().indexOf(selectedTrack);
+			return new BasicAudioPlaylist(playlist.getName(), tracks, selectedIndex == -1 ? null : tracks.get(selectedIndex), playlist.isSearchResult());
+		}
+		return item;
+	}
+
 	@Override
 	public void encodeTrack(AudioTrack track, DataOutput output) throws IOException {
 		var extendedTrack = (ExtendedAudioTrack) track;
@@ -0,0 +1,343 @@
+package com.github.topi314.lavasrc;
+
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cache for the JSON responses of catalogue lookups, shared by all sources using {@link LavaSrcTools#fetchResponse}.
+ * Only GET requests matching a {@link Policy} are cached, each policy decides how long its responses stay fresh.
+ * Responses are cached per url and credentials, so a response fetched with one token is never served to a request with another.
+ * Expired responses with an ETag or Last-Modified header are revalidated with a conditional request,
+ * and if the upstream fails they are served for up to {@code staleIfError} longer.
+ * The cache is bounded by the total size of the cached bodies, least recently used responses are evicted first.
+ * Bodies larger than a quarter of that are not cached, they are handed to the reader while they are read like uncached responses.
+ */
+public class HttpResponseCache {
+
+	private static final Logger log = LoggerFactory.getLogger(HttpResponseCache.class);
+
+	public static final long DEFAULT_MAX_WEIGHT = 32 * 1024 * 1024;
+	public static final Duration DEFAULT_STALE_IF_ERROR = Duration.ofHours(1);
+
+	// rough per entry overhead on top of the key and body, so many tiny responses are accounted for too
+	private static final int ENTRY_OVERHEAD = 128;
+	// not defined by HttpStatus of httpcore 4
+	private static final int SC_TOO_MANY_REQUESTS = 429;
+	// headers carrying the credentials a response may depend on, e.g. private playlists fetched with a user token
+	private static final List<String> CREDENTIAL_HEADERS = List.of("Authorization", "Cookie", "X-Authtoken", "x-user-auth-token", "x-tidal-token");
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final List<Policy> policies;
+	private final long maxWeight;
+	private final long staleIfError;
+	private long weight;
+
+	public HttpResponseCache() {
+		this(defaultPolicies(), DEFAULT_MAX_WEIGHT, DEFAULT_STALE_IF_ERROR);
+	}
+
+	/**
+	 * @param policies     the endpoints to cache, the first matching policy is used
+	 * @param maxWeight    the max total size of the cached responses in bytes
+	 * @param staleIfError how long after expiring a response may still be served if the upstream fails
+	 */
+	public HttpResponseCache(List<Policy> policies, long maxWeight, Duration staleIfError) {
+		if (maxWeight <= 0) {
+			throw new IllegalArgumentException("Max weight must be greater than 0");
+		}
+		this.policies = List.copyOf(policies);
+		this.maxWeight = maxWeight;
+		this.staleIfError = staleIfError.toMillis();
+	}
+
+	/**
+	 * Long lived metadata of albums, artists and tracks is cached for 6 hours, playlists, which are edited more often, for 10 minutes.
+	 * Full track lists, which can have thousands of tracks, are not cached.
+	 */
+	public static List<Policy> defaultPolicies() {
+		var albums = Duration.ofHours(6);
+		var playlists = Duration.ofMinutes(10);
+		return List.of(
+			new Policy("^https://api\\.deezer\\.com/2\\.0/(album|playlist)/\\d+/tracks", Duration.ZERO),
+			new Policy("^https://api\\.spotify\\.com/v1/(albums|artists|tracks)[/?]", albums),
+			new Policy("^https://api\\.spotify\\.com/v1/playlists/", playlists),
+			new Policy("^https://api\\.music\\.apple\\.com/v1/catalog/[^/]+/(albums|artists|songs)[/?]", albums),
+			new Policy("^https://api\\.music\\.apple\\.com/v1/catalog/[^/]+/playlists/", playlists),
+			new Policy("^https://api\\.deezer\\.com/2\\.0/(album|artist|track)/", albums),
+			new Policy("^https://api\\.deezer\\.com/2\\.0/playlist/", playlists),
+			new Policy("^https://api\\.tidal\\.com/v1/(albums|artists|tracks)/", albums),
+			new Policy("^https://api\\.tidal\\.com/v1/(playlists|mixes)/", playlists),
+			new Policy("^https://www\\.qobuz\\.com/api\\.json/0\\.2/(album/get|track/get|artist/page)\\?", albums),
+			new Policy("^https://www\\.qobuz\\.com/api\\.json/0\\.2/playlist/get\\?", playlists)
+		);
+	}
+
+	/**
+	 * @return how long the response to this request is fresh, or null if it should not be cached
+	 */
+	@Nullable
+	public Duration getTtl(HttpUriRequest request) {
+		if (!"GET".equals(request.getMethod())) {
+			return null;
+		}
+		var uri = request.getURI().toString();
+		for (var policy : this.policies) {
+			if (policy.pattern.matcher(uri).find()) {
+				return policy.ttl.isZero() || policy.ttl.isNegative() ? null : policy.ttl;
+			}
+		}
+		return null;
+	}
+
+	@Nullable
+	<T> T fetch(HttpInterface httpInterface, HttpUriRequest request, Duration ttl, LavaSrcTools.ResponseReader<T> reader) throws IOException {
+		var uri = request.getURI().toString();
+		var key = cacheKey(request);
+		var now = System.currentTimeMillis();
+		var entry = this.get(key, now);
+		if (entry != null && now < entry.expiresAt) {
+			return reader.read(new ByteArrayInputStream(entry.body));
+		}
+
+		if (entry != null && (entry.etag != null || entry.lastModified != null)) {
+			// revalidate with a copy, the caller may reuse its request
+			var conditional = new HttpGet(request.getURI());
+			conditional.setHeaders(request.getAllHeaders());
+			if (request instanceof HttpRequestBase) {
+				conditional.setConfig(((HttpRequestBase) request).getConfig());
+			}
+			if (entry.etag != null) {
+				conditional.setHeader("If-None-Match", entry.etag);
+			}
+			if (entry.lastModified != null) {
+				conditional.setHeader("If-Modified-Since", entry.lastModified);
+			}
+			request = conditional;
+		}
+
+		byte[] body;
+		try (CloseableHttpResponse response = httpInterface.execute(request)) {
+			int statusCode = response.getStatusLine().getStatusCode();
+
+			if (statusCode == HttpStatus.SC_NOT_MODIFIED && entry != null) {
+				var etag = response.getFirstHeader("ETag");
+				var lastModified = response.getFirstHeader("Last-Modified");
+				this.put(key, new Entry(
+					entry.body,
+					etag != null ? etag.getValue() : entry.etag,
+					lastModified != null ? lastModified.getValue() : entry.lastModified,
+					System.currentTimeMillis() + ttl.toMillis()
+				));
+				body = entry.body;
+			} else if ((statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS) && this.isUsableStale(entry)) {
+				log.warn("Server responded with {} to '{}', serving stale cached response", statusCode, uri);
+				body = entry.body;
+			} else {
+				var limit = this.maxWeight / 4 - key.length() * 2L - ENTRY_OVERHEAD;
+				var cacheable = !isNoStore(response);
+				var captured = new byte[1][];
+				var result = LavaSrcTools.readResponse(request, response, stream -> {
+					if (!cacheable || limit <= 0 || response.getEntity().getContentLength() > limit) {
+						return reader.read(stream);
+					}
+					var prefix = stream.readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE - 8));
+					if (prefix.length > limit) {
+						// too large to cache, hand the rest to the reader while it is read
+						return reader.read(new SequenceInputStream(new ByteArrayInputStream(prefix), stream));
+					}
+					captured[0] = prefix;
+					return reader.read(new ByteArrayInputStream(prefix));
+				});
+				if (captured[0] != null) {
+					var etag = response.getFirstHeader("ETag");
+					var lastModified = response.getFirstHeader("Last-Modified");
+					this.put(key, new Entry(
+						captured[0],
+						etag != null ? etag.getValue() : null,
+						lastModified != null ? lastModified.getValue() : null,
+						System.currentTimeMillis() + ttl.toMillis()
+					));
+				} else {
+					// the response replaces whatever was cached before, even if it could not be cached itself
+					this.remove(key);
+				}
+				return result;
+			}
+		} catch (IOException e) {
+			if (!this.isUsableStale(entry)) {
+				throw e;
+			}
+			log.warn("Request to '{}' failed, serving stale cached response", uri, e);
+			body = entry.body;
+		}
+		return reader.read(new ByteArrayInputStream(body));
+	}
+
+	/**
+	 * Removes the cached responses to this url for all credentials.
+	 */
+	public void invalidate(String uri) {
+		var prefix = uri + " ";
+		synchronized (this.entries) {
+			var iterator = this.entries.entrySet().iterator();
+			while (iterator.hasNext()) {
+				var next = iterator.next();
+				if (next.getKey().equals(uri) || next.getKey().startsWith(prefix)) {
+					iterator.remove();
+					this.weight -= weigh(next.getKey(), next.getValue());
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+			this.weight = 0;
+		}
+	}
+
+	private void remove(String key) {
+		synchronized (this.entries) {
+			var entry = this.entries.remove(key);
+			if (entry != null) {
+				this.weight -= weigh(key, entry);
+			}
+		}
+	}
+
+	@Nullable
+	private Entry get(String key, long now) {
+		synchronized (this.entries) {
+			var entry = this.entries.get(key);
+			if (entry != null && entry.expiresAt + this.staleIfError < now && entry.etag == null && entry.lastModified == null) {
+				// can neither be revalidated nor served stale anymore
+				this.entries.remove(key);
+				this.weight -= weigh(key, entry);
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	private void put(String key, Entry entry) {
+		var entryWeight = weigh(key, entry);
+		if (entryWeight > this.maxWeight / 4) {
+			// a single huge response would evict most of the cache
+			this.remove(key);
+			return;
+		}
+		synchronized (this.entries) {
+			var previous = this.entries.put(key, entry);
+			if (previous != null) {
+				this.weight -= weigh(key, previous);
+			}
+			this.weight += entryWeight;
+
+			var iterator = this.entries.entrySet().iterator();
+			while (this.weight > this.maxWeight && iterator.hasNext()) {
+				var eldest = iterator.next();
+				iterator.remove();
+				this.weight -= weigh(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * The url, followed by a hash of the credentials if the request has any.
+	 */
+	private static String cacheKey(HttpUriRequest request) {
+		var uri = request.getURI().toString();
+		MessageDigest digest = null;
+		for (var name : CREDENTIAL_HEADERS) {
+			for (var header : request.getHeaders(name)) {
+				if (digest == null) {
+					digest = sha256();
+				}
+				digest.update((name.toLowerCase() + ": " + header.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		if (digest == null) {
+			return uri;
+		}
+		var hash = new StringBuilder(uri.length() + 33).append(uri).append(' ');
+		var bytes = digest.digest();
+		// 128 bits are plenty to tell credentials apart
+		for (int i = 0; i < 16; i++) {
+			hash.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+		}
+		return hash.toString();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private boolean isUsableStale(@Nullable Entry entry) {
+		return entry != null && System.currentTimeMillis() < entry.expiresAt + this.staleIfError;
+	}
+
+	private static boolean isNoStore(CloseableHttpResponse response) {
+		var cacheControl = response.getFirstHeader("Cache-Control");
+		return cacheControl != null && cacheControl.getValue().contains("no-store");
+	}
+
+	private static long weigh(String key, Entry entry) {
+		return entry.body.length + key.length() * 2L + ENTRY_OVERHEAD;
+	}
+
+	public static class Policy {
+		private final Pattern pattern;
+		private final Duration ttl;
+
+		/**
+		 * @param pattern regex which is searched for in the request url
+		 * @param ttl     how long matching responses are fresh, zero disables caching for them
+		 */
+		public Policy(String pattern, Duration ttl) {
+			this.pattern = Pattern.compile(pattern);
+			this.ttl = ttl;
+		}
+	}
+
+	private static class Entry {
+		private final byte[] body;
+		@Nullable
+		private final String etag;
+		@Nullable
+		private final String lastModified;
+		private final long expiresAt;
+
+		private Entry(byte[] body, @Nullable String etag, @Nullable String lastModified, long expiresAt) {
+			this.body = body;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
@@ -4,7 +4,6 @@ import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -12,7 +11,9 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import static com.sedmelluq.discord.lavaplayer.tools.FriendlyException.Severity.SUSPICIOUS;
@@ -21,28 +22,93 @@ public class LavaSrcTools {
 
 	private static final Logger log = LoggerFactory.getLogger(LavaSrcTools.class);
 
+	/**
+	 * How much of a response body is kept for logging, bodies are never read into memory as a whole for logs.
+	 */
+	public static final int LOG_BODY_LIMIT = 4096;
+
+	@Nullable
+	private static volatile HttpResponseCache responseCache;
+
+	@Nullable
+	public static HttpResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * Sets the cache used for the responses of all sources, null disables caching.
+	 */
+	public static void setResponseCache(@Nullable HttpResponseCache cache) {
+		responseCache = cache;
+	}
+
 	@Nullable
 	public static JsonBrowser fetchResponseAsJson(HttpInterface httpInterface, HttpUriRequest request) throws IOException {
+		return fetchResponse(httpInterface, request, JsonBrowser::parse);
+	}
+
+	/**
+	 * Like {@link #fetchResponseAsJson(HttpInterface, HttpUriRequest)}, but hands the response body to the reader
+	 * instead of parsing it into a {@link JsonBrowser}, so large responses can be decoded while they are read.
+	 */
+	@Nullable
+	public static <T> T fetchResponse(HttpInterface httpInterface, HttpUriRequest request, ResponseReader<T> reader) throws IOException {
+		var cache = responseCache;
+		if (cache != null) {
+			var ttl = cache.getTtl(request);
+			if (ttl != null) {
+				return cache.fetch(httpInterface, request, ttl, reader);
+			}
+		}
+
 		try (CloseableHttpResponse response = httpInterface.execute(request)) {
-			int statusCode = response.getStatusLine().getStatusCode();
-
-			if (statusCode == HttpStatus.SC_NOT_FOUND) {
-				var data = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
-				log.error("Server responded with not found to '{}': {}", request.getURI(), data);
-				return null;
-			} else if (statusCode == HttpStatus.SC_NO_CONTENT) {
-				log.error("Server responded with not content to '{}'", request.getURI());
-				return null;
-			} else if (!HttpClientTools.isSuccessWithContent(statusCode)) {
-				var data = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
-				log.error("Server responded with an error to '{}': {}", request.getURI(), data);
-				throw new FriendlyException("Server responded with an error.", SUSPICIOUS,
-					new IllegalStateException("Response code from channel info is " + statusCode));
+			return readResponse(request, response, reader);
+		}
+	}
+
+	@Nullable
+	static <T> T readResponse(HttpUriRequest request, CloseableHttpResponse response, ResponseReader<T> reader) throws IOException {
+		int statusCode = response.getStatusLine().getStatusCode();
+
+		if (statusCode == HttpStatus.SC_NOT_FOUND) {
+			log.error("Server responded with not found to '{}': {}", request.getURI(), readLogBody(response));
+			return null;
+		} else if (statusCode == HttpStatus.SC_NO_CONTENT) {
+			log.error("Server responded with not content to '{}'", request.getURI());
+			return null;
+		} else if (!HttpClientTools.isSuccessWithContent(statusCode)) {
+			log.error("Server responded with an error to '{}': {}", request.getURI(), readLogBody(response));
+			throw new FriendlyException("Server responded with an error.", SUSPICIOUS,
+				new IllegalStateException("Response code from channel info is " + statusCode));
+		}
+
+		try (var stream = new BufferedInputStream(response.getEntity().getContent())) {
+			if (log.isDebugEnabled()) {
+				stream.mark(LOG_BODY_LIMIT);
+				var data = truncate(stream.readNBytes(LOG_BODY_LIMIT));
+				stream.reset();
+				log.debug("Response from '{}' was successful: {}", request.getURI(), data);
 			}
+			return reader.read(stream);
+		}
+	}
 
-			var data = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
-			log.debug("Response from '{}' was successful: {}", request.getURI(), data);
-			return JsonBrowser.parse(data);
+	private static String readLogBody(CloseableHttpResponse response) throws IOException {
+		if (response.getEntity() == null) {
+			return "";
 		}
+		try (var stream = response.getEntity().getContent()) {
+			return truncate(stream.readNBytes(LOG_BODY_LIMIT));
+		}
+	}
+
+	private static String truncate(byte[] data) {
+		var text = new String(data, StandardCharsets.UTF_8);
+		return data.length < LOG_BODY_LIMIT ? text : text + "...";
+	}
+
+	@FunctionalInterface
+	public interface ResponseReader<T> {
+		T read(InputStream stream) throws IOException;
 	}
 }
@@ -0,0 +1,270 @@
+package com.github.topi314.lavasrc;
+
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Holds an expiring token and keeps it fresh.
+ * <ul>
+ *     <li>the current token is an immutable snapshot which is read without locking</li>
+ *     <li>only one refresh runs at a time, concurrent callers share its result</li>
+ *     <li>tokens get refreshed in the background shortly before they expire, so requests never wait for a refresh while a token is valid</li>
+ *     <li>if that refresh failed, a token which has not expired yet is still handed out while it is retried</li>
+ *     <li>with an idle timeout, tokens which were not used for that long are no longer refreshed in the background</li>
+ * </ul>
+ *
+ * @param <T> the token type, it should be immutable
+ */
+public class TokenHolder<T> {
+
+	private static final Logger log = LoggerFactory.getLogger(TokenHolder.class);
+
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("token-scheduler"));
+	private static final ExecutorService refresher = Executors.newCachedThreadPool(new DaemonThreadFactory("token-refresher"));
+	private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+	private final String name;
+	private final Fetcher<T> fetcher;
+	private final Function<T, Instant> expiry;
+	private final Duration refreshAhead;
+	@Nullable
+	private final Duration idleTimeout;
+
+	@Nullable
+	private volatile Snapshot<T> snapshot;
+	@Nullable
+	private CompletableFuture<Snapshot<T>> refresh;
+	@Nullable
+	private ScheduledFuture<?> scheduledRefresh;
+	private volatile Instant retryAfter = Instant.MIN;
+	private volatile long lastAccess = System.currentTimeMillis();
+	private long generation;
+
+	/**
+	 * @param name         the name used in log messages
+	 * @param fetcher      fetches a new token, called from a background thread
+	 * @param expiry       returns when a token expires, or null if it never does
+	 * @param refreshAhead how long before a token expires it gets refreshed
+	 * @param idleTimeout  how long a token may be unused before the background refresh stops, null to always refresh it
+	 */
+	public TokenHolder(String name, Fetcher<T> fetcher, Function<T, Instant> expiry, Duration refreshAhead, @Nullable Duration idleTimeout) {
+		this.name = name;
+		this.fetcher = fetcher;
+		this.expiry = expiry;
+		this.refreshAhead = refreshAhead;
+		this.idleTimeout = idleTimeout;
+	}
+
+	public TokenHolder(String name, Fetcher<T> fetcher, Function<T, Instant> expiry, Duration refreshAhead) {
+		this(name, fetcher, expiry, refreshAhead, null);
+	}
+
+	public TokenHolder(String name, Fetcher<T> fetcher, Function<T, Instant> expiry) {
+		this(name, fetcher, expiry, Duration.ofMinutes(1));
+	}
+
+	/**
+	 * @return a valid token, only waits for a refresh if there is no usable token
+	 */
+	public T get() throws IOException {
+		if (this.idleTimeout != null) {
+			this.lastAccess = System.currentTimeMillis();
+		}
+		while (true) {
+			var snapshot = this.snapshot;
+			var now = Instant.now();
+			if (snapshot != null) {
+				if (snapshot.refreshAt.isAfter(now)) {
+					return snapshot.value;
+				}
+				if (snapshot.expires.isAfter(now)) {
+					if (this.retryAfter.isBefore(now)) {
+						this.refresh();
+					}
+					return snapshot.value;
+				}
+			}
+			try {
+				return join(this.refresh()).value;
+			} catch (CancellationException e) {
+				// the token was replaced or invalidated while waiting, check again
+			}
+		}
+	}
+
+	/**
+	 * Fetches a new token even if the current one is still valid and waits for it.
+	 * If a refresh is already running, its result is used instead.
+	 */
+	public T refreshNow() throws IOException {
+		return join(this.refresh()).value;
+	}
+
+	/**
+	 * @return the current token without refreshing it, even if it is expired
+	 */
+	@Nullable
+	public T peek() {
+		var snapshot = this.snapshot;
+		return snapshot == null ? null : snapshot.value;
+	}
+
+	/**
+	 * Replaces the current token, for example with one provided by the user.
+	 */
+	public synchronized void set(T value) {
+		this.generation++;
+		this.refresh = null;
+		this.update(value);
+	}
+
+	/**
+	 * Forgets the current token, the next {@link #get()} fetches a new one.
+	 * Any refresh which is already running is ignored.
+	 */
+	public synchronized void invalidate() {
+		this.generation++;
+		this.refresh = null;
+		this.snapshot = null;
+		this.retryAfter = Instant.MIN;
+		if (this.scheduledRefresh != null) {
+			this.scheduledRefresh.cancel(false);
+			this.scheduledRefresh = null;
+		}
+	}
+
+	/**
+	 * Starts a refresh unless one is already running.
+	 */
+	public synchronized CompletableFuture<Snapshot<T>> refresh() {
+		if (this.refresh != null) {
+			return this.refresh;
+		}
+		var generation = this.generation;
+		var future = new CompletableFuture<Snapshot<T>>();
+		this.refresh = future;
+		try {
+			refresher.execute(() -> this.fetch(generation, future));
+		} catch (RejectedExecutionException e) {
+			this.refresh = null;
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private void fetch(long generation, CompletableFuture<Snapshot<T>> future) {
+		T value;
+		try {
+			log.debug("Refreshing {} token...", this.name);
+			value = this.fetcher.fetch();
+		} catch (Throwable e) {
+			log.warn("Failed to refresh {} token", this.name, e);
+			synchronized (this) {
+				if (this.generation == generation) {
+					this.refresh = null;
+					this.retryAfter = Instant.now().plus(RETRY_DELAY);
+				}
+			}
+			future.completeExceptionally(e);
+			return;
+		}
+
+		Snapshot<T> snapshot;
+		synchronized (this) {
+			if (this.generation != generation) {
+				// the token was invalidated while fetching, the result might belong to outdated credentials
+				future.cancel(false);
+				return;
+			}
+			this.refresh = null;
+			snapshot = this.update(value);
+		}
+		future.complete(snapshot);
+	}
+
+	private Snapshot<T> update(T value) {
+		var expires = this.expiry.apply(value);
+		if (expires == null) {
+			expires = Instant.MAX;
+		}
+		var refreshAt = expires == Instant.MAX ? Instant.MAX : expires.minus(this.refreshAhead);
+		var snapshot = new Snapshot<>(value, expires, refreshAt);
+		this.snapshot = snapshot;
+		this.retryAfter = Instant.MIN;
+
+		if (this.scheduledRefresh != null) {
+			this.scheduledRefresh.cancel(false);
+			this.scheduledRefresh = null;
+		}
+		if (refreshAt != Instant.MAX) {
+			var delay = Math.max(0, Duration.between(Instant.now(), refreshAt).toMillis());
+			var generation = this.generation;
+			this.scheduledRefresh = scheduler.schedule(() -> this.refreshAhead(generation), delay, TimeUnit.MILLISECONDS);
+		}
+		return snapshot;
+	}
+
+	private synchronized void refreshAhead(long generation) {
+		if (this.generation != generation) {
+			return;
+		}
+		this.scheduledRefresh = null;
+		if (this.idleTimeout != null && this.lastAccess + this.idleTimeout.toMillis() < System.currentTimeMillis()) {
+			// the next get() refreshes it again
+			log.debug("{} token was not used for {}, not refreshing it in the background", this.name, this.idleTimeout);
+			return;
+		}
+		this.refresh().whenComplete((snapshot, e) -> {
+			if (e == null || e instanceof CancellationException) {
+				return;
+			}
+			synchronized (this) {
+				var current = this.snapshot;
+				if (this.generation == generation && current != null && current.expires.isAfter(Instant.now().plus(RETRY_DELAY))) {
+					this.scheduledRefresh = scheduler.schedule(() -> this.refreshAhead(generation), RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+				}
+			}
+		});
+	}
+
+	private static <T> T join(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			var cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@FunctionalInterface
+	public interface Fetcher<T> {
+		T fetch() throws IOException;
+	}
+
+	public static class Snapshot<T> {
+		public final T value;
+		public final Instant expires;
+		private final Instant refreshAt;
+
+		private Snapshot(T value, Instant expires, Instant refreshAt) {
+			this.value = value;
+			this.expires = expires;
+			this.refreshAt = refreshAt;
+		}
+	}
+
+}
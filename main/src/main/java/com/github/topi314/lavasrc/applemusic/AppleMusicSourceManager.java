@@ -126,11 +126,11 @@ public class AppleMusicSourceManager extends MirroringAudioSourceManager impleme
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		var identifier = reference.identifier;
 		var preview = reference.identifier.startsWith(PREVIEW_PREFIX);
 
-		return this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview);
+		return this.preload(this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview));
 	}
 
 	public AudioItem loadItem(String identifier, boolean preview) {
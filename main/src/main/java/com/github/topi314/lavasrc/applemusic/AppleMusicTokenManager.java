@@ -1,5 +1,6 @@
 package com.github.topi314.lavasrc.applemusic;
 
+import com.github.topi314.lavasrc.TokenHolder;
 import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.client.methods.HttpGet;
@@ -9,6 +10,7 @@ import org.jsoup.Jsoup;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.regex.Pattern;
@@ -17,28 +19,25 @@ public class AppleMusicTokenManager {
 
 	private static final Pattern TOKEN_PATTERN = Pattern.compile("ey[\\w-]+\\.[\\w-]+\\.[\\w-]+");
 
-	private Token token;
+	private final TokenHolder<Token> token = new TokenHolder<>("Apple Music", this::fetchNewToken, value -> value.expire, Duration.ofMinutes(5));
 
 	public AppleMusicTokenManager(String mediaAPIToken) throws IOException {
 		if (mediaAPIToken == null || mediaAPIToken.isEmpty()) {
-			this.fetchNewToken();
+			this.token.get();
 		} else {
-			this.parseTokenData(mediaAPIToken);
+			this.setToken(mediaAPIToken);
 		}
 	}
 
 	public Token getToken() throws IOException {
-		if (this.token.isExpired()) {
-			this.fetchNewToken();
-		}
-		return this.token;
+		return this.token.get();
 	}
 
 	public void setToken(String mediaAPIToken) throws IOException {
-		this.parseTokenData(mediaAPIToken);
+		this.token.set(this.parseTokenData(mediaAPIToken));
 	}
 
-	private void parseTokenData(String mediaAPIToken) throws IOException {
+	private Token parseTokenData(String mediaAPIToken) throws IOException {
 		if (mediaAPIToken == null || mediaAPIToken.isEmpty()) {
 			throw new IllegalArgumentException("Invalid token provided.");
 		}
@@ -51,10 +50,10 @@ public class AppleMusicTokenManager {
 		var payload = new String(Base64.getDecoder().decode(parts[1]), StandardCharsets.UTF_8);
 		var json = JsonBrowser.parse(payload);
 
-		this.token = new Token(mediaAPIToken, json.get("root_https_origin").index(0).text(), Instant.ofEpochSecond(json.get("exp").asLong(0)));
+		return new Token(mediaAPIToken, json.get("root_https_origin").index(0).text(), Instant.ofEpochSecond(json.get("exp").asLong(0)));
 	}
 
-	private void fetchNewToken() throws IOException {
+	private Token fetchNewToken() throws IOException {
 		try (var httpClient = HttpClients.createDefault()) {
 			var mainPageHtml = fetchHtml(httpClient, "https://music.apple.com");
 			var tokenScriptUrl = extractTokenScriptUrl(mainPageHtml);
@@ -69,7 +68,7 @@ public class AppleMusicTokenManager {
 			if (!tokenMatcher.find()) {
 				throw new IllegalStateException("Failed to extract token from script content.");
 			}
-			this.parseTokenData(tokenMatcher.group());
+			return this.parseTokenData(tokenMatcher.group());
 		}
 	}
 
@@ -102,12 +101,5 @@ public class AppleMusicTokenManager {
 			this.origin = origin;
 			this.expire = expire;
 		}
-
-		private boolean isExpired() {
-			if (this.apiToken == null || this.expire == null) {
-				return true;
-			}
-			return expire.minusSeconds(5).isBefore(Instant.now());
-		}
 	}
 }
@@ -11,4 +11,9 @@ public class AudiomackAudioPlaylist extends ExtendedAudioPlaylist {
 	) {
 		super(name, tracks, type, identifier, artworkURL, author, totalTracks);
 	}
+
+	@Override
+	public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+		return new AudiomackAudioPlaylist(this.getName(), tracks, this.type, this.url, this.artworkURL, this.author, this.totalTracks);
+	}
 }
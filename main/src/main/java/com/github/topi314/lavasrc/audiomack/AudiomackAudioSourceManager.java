@@ -89,7 +89,7 @@ public class AudiomackAudioSourceManager extends ExtendedAudioSourceManager impl
 	}
 
 	@Override
-	public @Nullable AudioItem loadItem(@NotNull AudioPlayerManager manager, @NotNull AudioReference reference) {
+	protected @Nullable AudioItem loadReference(@NotNull AudioPlayerManager manager, @NotNull AudioReference reference) {
 		String identifier = reference.identifier;
 		if (identifier == null || identifier.isEmpty()) {
 			return null;
@@ -61,6 +61,7 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 
 	private final String masterDecryptionKey;
 	private final DeezerTokenTracker tokenTracker;
+	private final DeezerMediaResolver mediaResolver;
 	private final HttpInterfaceManager httpInterfaceManager;
 	private DeezerAudioTrack.TrackFormat[] formats;
 
@@ -83,6 +84,7 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 
 		this.masterDecryptionKey = masterDecryptionKey;
 		this.tokenTracker = new DeezerTokenTracker(this, arl);
+		this.mediaResolver = new DeezerMediaResolver(this);
 		this.formats = formats != null && formats.length > 0 ? formats : DeezerAudioTrack.TrackFormat.DEFAULT_FORMATS;
 		this.httpInterfaceManager = HttpClientTools.createCookielessThreadLocalManager();
 	}
@@ -192,10 +194,12 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		var identifier = reference.identifier;
 		var preview = reference.identifier.startsWith(PREVIEW_PREFIX);
-		return this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview);
+		var item = this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview);
+		this.mediaResolver.addUpcoming(item);
+		return item;
 	}
 
 	public AudioItem loadItem(String identifier, boolean preview) {
@@ -259,14 +263,26 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 		return LavaSrcTools.fetchResponseAsJson(this.httpInterfaceManager.getInterface(), request);
 	}
 
-	private List<AudioTrack> parseTracks(JsonBrowser json, boolean preview) {
+	private DeezerTrackList getTrackList(String uri) throws IOException {
+		var request = new HttpGet(uri);
+		request.setHeader("Accept", "application/json");
+		return LavaSrcTools.fetchResponse(this.httpInterfaceManager.getInterface(), request, DeezerTrackList::read);
+	}
+
+	private DeezerTrackList.Track getTrackData(String uri) throws IOException {
+		var request = new HttpGet(uri);
+		request.setHeader("Accept", "application/json");
+		return LavaSrcTools.fetchResponse(this.httpInterfaceManager.getInterface(), request, DeezerTrackList::readTrack);
+	}
+
+	private List<AudioTrack> parseTracks(DeezerTrackList trackList, boolean preview) {
 		var tracks = new ArrayList<AudioTrack>();
-		for (var track : json.get("data").values()) {
-			if (!track.get("type").text().equals("track")) {
+		for (var track : trackList.data) {
+			if (!"track".equals(track.type)) {
 				continue;
 			}
-			if (!track.get("readable").asBoolean(false)) {
-				log.warn("Skipping track {} by {} because it is not readable. Available countries: {}", track.get("title").text(), track.get("artist").get("name").safeText(), track.get("available_countries").text());
+			if (!track.readable) {
+				log.warn("Skipping track {} by {} because it is not readable. Available countries: {}", track.title, track.artist.name == null ? "" : track.artist.name, track.availableCountries);
 				continue;
 			}
 			tracks.add(this.parseTrack(track, preview));
@@ -274,33 +290,36 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 		return tracks;
 	}
 
-	private AudioTrack parseTrack(JsonBrowser json, boolean preview) {
-		if (!json.get("readable").asBoolean(false)) {
-			throw new FriendlyException("This track is not readable. Available countries: " + json.get("available_countries").text(),
-				FriendlyException.Severity.COMMON, null);
-		}
-		var id = json.get("id").text();
+	private AudioTrack parseTrack(DeezerTrackList.Track track, boolean preview) {
 		return new DeezerAudioTrack(
 			new AudioTrackInfo(
-				json.get("title").safeText(),
-				json.get("artist").get("name").safeText(),
-				preview ? PREVIEW_LENGTH : json.get("duration").asLong(0) * 1000,
-				id,
+				track.title == null ? "" : track.title,
+				track.artist.name == null ? "" : track.artist.name,
+				preview ? PREVIEW_LENGTH : track.duration * 1000,
+				track.id,
 				false,
-				"https://deezer.com/track/" + id,
-				json.get("album").get("cover_xl").text(),
-				json.get("isrc").text()
+				"https://deezer.com/track/" + track.id,
+				track.album.coverXl,
+				track.isrc
 			),
-			json.get("album").get("title").text(),
-			"https://www.deezer.com/album/" + json.get("album").get("id").text(),
-			"https://www.deezer.com/artist/" + json.get("artist").get("id").text(),
-			json.get("artist").get("picture_xl").text(),
-			json.get("preview").text(),
+			track.album.title,
+			"https://www.deezer.com/album/" + track.album.id,
+			"https://www.deezer.com/artist/" + track.artist.id,
+			track.artist.pictureXl,
+			track.preview,
 			preview,
 			this
 		);
 	}
 
+	private AudioTrack parseReadableTrack(DeezerTrackList.Track track, boolean preview) {
+		if (!track.readable) {
+			throw new FriendlyException("This track is not readable. Available countries: " + track.availableCountries,
+				FriendlyException.Severity.COMMON, null);
+		}
+		return this.parseTrack(track, preview);
+	}
+
 	private AudioSearchResult getAutocomplete(String query, Set<AudioSearchResult.Type> types) throws IOException {
 		if (types.isEmpty()) {
 			types = SEARCH_TYPES;
@@ -356,19 +375,19 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 		}
 
 		var tracks = new ArrayList<AudioTrack>();
-		if (types.contains(AudioSearchResult.Type.TRACK)) {
-			tracks.addAll(this.parseTracks(json.get("tracks"), false));
+		if (types.contains(AudioSearchResult.Type.TRACK) && !json.get("tracks").isNull()) {
+			tracks.addAll(this.parseTracks(json.get("tracks").as(DeezerTrackList.class), false));
 		}
 
 		return new BasicAudioSearchResult(tracks, albums, artists, playlists, new ArrayList<>());
 	}
 
 	private AudioItem getTrackByISRC(String isrc, boolean preview) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "/track/isrc:" + URLEncoder.encode(isrc, StandardCharsets.UTF_8));
-		if (json == null || json.get("id").isNull()) {
+		var track = this.getTrackData(PUBLIC_API_BASE + "/track/isrc:" + URLEncoder.encode(isrc, StandardCharsets.UTF_8));
+		if (track == null || track.id == null) {
 			return AudioReference.NO_TRACK;
 		}
-		return this.parseTrack(json, preview);
+		return this.parseReadableTrack(track, preview);
 	}
 
 	private AudioTrack parseRecommendationTrack(JsonBrowser json, boolean preview) {
@@ -450,12 +469,12 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 	}
 
 	private AudioItem getSearch(String query, boolean preview) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
-		if (json == null || json.get("data").values().isEmpty()) {
+		var tracks = this.getTrackList(PUBLIC_API_BASE + "/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+		if (tracks == null || tracks.data.isEmpty()) {
 			return AudioReference.NO_TRACK;
 		}
 
-		return new BasicAudioPlaylist("Deezer Search: " + query, this.parseTracks(json, preview), null, true);
+		return new BasicAudioPlaylist("Deezer Search: " + query, this.parseTracks(tracks, preview), null, true);
 	}
 
 	private AudioItem getAlbum(String id, boolean preview) throws IOException {
@@ -467,10 +486,14 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 		var artworkUrl = json.get("cover_xl").text();
 		var author = json.get("contributors").values().get(0).get("name").text();
 
-		var tracks = this.getJson(PUBLIC_API_BASE + "/album/" + id + "/tracks?limit=10000");
+		var tracks = this.getTrackList(PUBLIC_API_BASE + "/album/" + id + "/tracks?limit=10000");
+		if (tracks == null) {
+			return AudioReference.NO_TRACK;
+		}
 
-		for (var track : tracks.get("data").values()) {
-			track.get("artist").put("picture_xl", json.get("artist").get("picture_xl"));
+		var artistPicture = json.get("artist").get("picture_xl").text();
+		for (var track : tracks.data) {
+			track.artist.pictureXl = artistPicture;
 		}
 
 		return new DeezerAudioPlaylist(json.get("title").text(),
@@ -483,11 +506,11 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 	}
 
 	private AudioItem getTrack(String id, boolean preview) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "/track/" + id);
-		if (json == null) {
+		var track = this.getTrackData(PUBLIC_API_BASE + "/track/" + id);
+		if (track == null) {
 			return AudioReference.NO_TRACK;
 		}
-		return this.parseTrack(json, preview);
+		return this.parseReadableTrack(track, preview);
 	}
 
 	private AudioItem getPlaylist(String id, boolean preview) throws IOException {
@@ -500,7 +523,10 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 		var author = json.get("creator").get("name").text();
 
 		// This endpoint returns tracks with ISRC, unlike the other REST call
-		var tracks = this.getJson(PUBLIC_API_BASE + "/playlist/" + id + "/tracks?limit=10000");
+		var tracks = this.getTrackList(PUBLIC_API_BASE + "/playlist/" + id + "/tracks?limit=10000");
+		if (tracks == null) {
+			return AudioReference.NO_TRACK;
+		}
 
 		return new DeezerAudioPlaylist(json.get("title").text(),
 			this.parseTracks(tracks, preview),
@@ -517,18 +543,18 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 			return AudioReference.NO_TRACK;
 		}
 
-		var tracksJson = this.getJson(PUBLIC_API_BASE + "/artist/" + id + "/top?limit=50");
-		if (tracksJson == null || tracksJson.get("data").values().isEmpty()) {
+		var tracks = this.getTrackList(PUBLIC_API_BASE + "/artist/" + id + "/top?limit=50");
+		if (tracks == null || tracks.data.isEmpty()) {
 			return AudioReference.NO_TRACK;
 		}
 
-		for (var track : tracksJson.get("data").values()) {
-			track.get("artist").put("picture_xl", json.get("picture_xl"));
+		var artworkUrl = json.get("picture_xl").text();
+		for (var track : tracks.data) {
+			track.artist.pictureXl = artworkUrl;
 		}
 
-		var artworkUrl = json.get("picture_xl").text();
 		var author = json.get("name").text();
-		var deezerTracks = this.parseTracks(tracksJson, preview);
+		var deezerTracks = this.parseTracks(tracks, preview);
 		return new DeezerAudioPlaylist(author + "'s Top Tracks", deezerTracks, DeezerAudioPlaylist.Type.ARTIST, json.get("link").text(), artworkUrl, author, deezerTracks.size());
 	}
 
@@ -564,6 +590,7 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 			throw new IllegalArgumentException("Deezer track formats must not be empty");
 		}
 		this.formats = formats;
+		this.mediaResolver.clear();
 	}
 
 	public HttpInterface getHttpInterface() {
@@ -573,4 +600,8 @@ public class DeezerAudioSourceManager extends ExtendedAudioSourceManager impleme
 	public DeezerTokenTracker getTokenTracker() {
 		return this.tokenTracker;
 	}
+
+	public DeezerMediaResolver getMediaResolver() {
+		return this.mediaResolver;
+	}
 }
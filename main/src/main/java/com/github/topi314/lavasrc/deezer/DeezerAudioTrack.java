@@ -1,7 +1,6 @@
 package com.github.topi314.lavasrc.deezer;
 
 import com.github.topi314.lavasrc.ExtendedAudioTrack;
-import com.github.topi314.lavasrc.LavaSrcTools;
 import com.sedmelluq.discord.lavaplayer.container.flac.FlacAudioTrack;
 import com.sedmelluq.discord.lavaplayer.container.mp3.Mp3AudioTrack;
 import com.sedmelluq.discord.lavaplayer.container.mpeg.MpegAudioTrack;
@@ -16,14 +15,6 @@ import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
 import org.apache.commons.codec.binary.Hex;
-import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCookieStore;
-import org.apache.http.impl.cookie.BasicClientCookie;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +42,7 @@ public class DeezerAudioTrack extends ExtendedAudioTrack {
 		this.sourceManager = sourceManager;
 	}
 
-	private static String formatFormats(TrackFormat[] formats) {
+	static String formatFormats(TrackFormat[] formats) {
 		var strFormats = new ArrayList<String>();
 		for (var format : formats) {
 			strFormats.add("{\"cipher\":\"BF_CBC_STRIPE\",\"format\":\"" + format.name() + "\"}");
@@ -59,33 +50,11 @@ public class DeezerAudioTrack extends ExtendedAudioTrack {
 		return String.join(",", strFormats);
 	}
 
-	private Tokens getTokens(HttpInterface httpInterface) throws IOException {
-		var request = new HttpGet(DeezerAudioSourceManager.PRIVATE_API_BASE + "?method=deezer.getUserData&input=3&api_version=1.0&api_token=");
-
-		var json = LavaSrcTools.fetchResponseAsJson(httpInterface, request);
-		DeezerAudioSourceManager.checkResponse(json, "Failed to get user token");
-
-		return new Tokens(
-			json.get("results").get("USER").get("OPTIONS").get("license_token").text(),
-			json.get("results").get("checkForm").text()
-		);
-	}
-
+	/**
+	 * Resolves the media url of this track, see {@link DeezerMediaResolver#resolveUncached}.
+	 */
 	public SourceWithFormat getSource(HttpInterface httpInterface, String apiToken, String licenseToken) throws IOException, URISyntaxException {
-		var getTrackToken = new HttpPost(DeezerAudioSourceManager.PRIVATE_API_BASE + "?method=song.getData&input=3&api_version=1.0&api_token=" + apiToken);
-		getTrackToken.setEntity(new StringEntity("{\"sng_id\":\"" + this.trackInfo.identifier + "\"}", ContentType.APPLICATION_JSON));
-		var trackTokenJson = LavaSrcTools.fetchResponseAsJson(httpInterface, getTrackToken);
-		DeezerAudioSourceManager.checkResponse(trackTokenJson, "Failed to get track token");
-
-		var trackToken = trackTokenJson.get("results").get("TRACK_TOKEN").text();
-
-		var getMediaURL = new HttpPost(DeezerAudioSourceManager.MEDIA_BASE + "/get_url");
-		getMediaURL.setEntity(new StringEntity("{\"license_token\":\"" + licenseToken + "\",\"media\":[{\"type\":\"FULL\",\"formats\":[" + formatFormats(this.sourceManager.getFormats()) + "]}],\"track_tokens\": [\"" + trackToken + "\"]}", ContentType.APPLICATION_JSON));
-
-		var json = LavaSrcTools.fetchResponseAsJson(httpInterface, getMediaURL);
-		DeezerAudioSourceManager.checkResponse(json, "Failed to get media URL");
-
-		return SourceWithFormat.fromResponse(json, trackTokenJson);
+		return this.sourceManager.getMediaResolver().resolveUncached(httpInterface, this.trackInfo.identifier, apiToken, licenseToken);
 	}
 
 	public byte[] getTrackDecryptionKey() throws NoSuchAlgorithmException {
@@ -129,24 +98,18 @@ public class DeezerAudioTrack extends ExtendedAudioTrack {
 			if (arl == null) {
 				arl = this.sourceManager.getTokenTracker().getArl();
 			}
-			var cookieStore = new BasicCookieStore();
-			httpInterface.getContext().setCookieStore(cookieStore);
-			httpInterface.getContext().setRequestConfig(
-				RequestConfig.copy(httpInterface.getContext().getRequestConfig())
-					.setCookieSpec(CookieSpecs.STANDARD)
-					.build()
-			);
-
-			var cookie = new BasicClientCookie("arl", arl);
-			cookie.setPath("/");
-			cookie.setSecure(true);
-			cookie.setDomain("deezer.com");
-			cookie.setAttribute("domain", ".deezer.com");
-			cookieStore.addCookie(cookie);
-
-			// TODO: figure out caching these for the arl provided in the config
-			var tokens = this.getTokens(httpInterface);
-			var source = this.getSource(httpInterface, tokens.api, tokens.license);
+			var tokenTracker = this.sourceManager.getTokenTracker();
+			var tokens = tokenTracker.getTokens(arl);
+			DeezerTokenTracker.applyCookies(httpInterface, arl, tokens);
+
+			SourceWithFormat source;
+			try {
+				source = this.sourceManager.getMediaResolver().resolve(httpInterface, this.trackInfo.identifier, arl, tokens);
+			} catch (IllegalStateException e) {
+				// the session might have been invalidated by deezer, fetch new tokens for the next attempt
+				tokenTracker.invalidateTokens(arl);
+				throw e;
+			}
 			try (var stream = new DeezerPersistentHttpStream(httpInterface, source.url, source.contentLength, this.getTrackDecryptionKey())) {
 				processDelegate(source.format.trackFactory.apply(this.trackInfo, stream), executor);
 			}
@@ -188,16 +151,6 @@ public class DeezerAudioTrack extends ExtendedAudioTrack {
 		}
 	}
 
-	private static class Tokens {
-		public final String license;
-		public final String api;
-
-		private Tokens(String license, String api) {
-			this.license = license;
-			this.api = api;
-		}
-	}
-
 	public static class SourceWithFormat {
 		private final URI url;
 		private final TrackFormat format;
@@ -209,15 +162,10 @@ public class DeezerAudioTrack extends ExtendedAudioTrack {
 			this.contentLength = contentLength;
 		}
 
-		private static SourceWithFormat fromResponse(JsonBrowser json, JsonBrowser trackJson) throws URISyntaxException {
-			var media = json.get("data").index(0).get("media").index(0);
-			if (media.isNull()) {
-				throw new IllegalStateException("No media found in response");
-			}
-
+		static SourceWithFormat fromMedia(JsonBrowser media, JsonBrowser track) throws URISyntaxException {
 			var format = media.get("format").text();
 			var url = media.get("sources").index(0).get("url").text();
-			var contentLength = trackJson.get("results").get("FILESIZE_" + format).asLong(Units.CONTENT_LENGTH_UNKNOWN);
+			var contentLength = track.get("FILESIZE_" + format).asLong(Units.CONTENT_LENGTH_UNKNOWN);
 			return new SourceWithFormat(url, TrackFormat.from(format), contentLength);
 		}
 
@@ -0,0 +1,199 @@
+package com.github.topi314.lavasrc.deezer;
+
+import com.github.topi314.lavasrc.LavaSrcTools;
+import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the media urls of deezer tracks in batches.
+ * When a track of a loaded playlist is resolved, the tracks following it are resolved in the same requests and cached until their urls expire.
+ */
+public class DeezerMediaResolver {
+
+	private static final Logger log = LoggerFactory.getLogger(DeezerMediaResolver.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 10;
+	private static final int MAX_UPCOMING = 10000;
+	private static final int MAX_SOURCES = 2000;
+	private static final Duration MAX_SOURCE_AGE = Duration.ofMinutes(30);
+	private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(1);
+
+	private final DeezerAudioSourceManager sourceManager;
+	private final Map<String, List<String>> upcoming = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+			return this.size() > MAX_UPCOMING;
+		}
+	};
+	private final Map<String, CachedSource> sources = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedSource> eldest) {
+			return this.size() > MAX_SOURCES;
+		}
+	};
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	public DeezerMediaResolver(DeezerAudioSourceManager sourceManager) {
+		this.sourceManager = sourceManager;
+	}
+
+	/**
+	 * Sets how many tracks are resolved in one request, 1 disables batching.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Remembers which tracks follow each other in a loaded playlist, so they can be resolved together.
+	 */
+	public void addUpcoming(AudioItem item) {
+		if (this.batchSize <= 1 || !(item instanceof DeezerAudioPlaylist)) {
+			return;
+		}
+		var ids = ((AudioPlaylist) item).getTracks().stream()
+			.filter(track -> track instanceof DeezerAudioTrack && !((DeezerAudioTrack) track).isPreview())
+			.map(track -> track.getIdentifier())
+			.collect(Collectors.toList());
+
+		synchronized (this.upcoming) {
+			for (var i = 0; i < ids.size() - 1; i++) {
+				this.upcoming.put(ids.get(i), List.copyOf(ids.subList(i + 1, Math.min(i + this.batchSize, ids.size()))));
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (this.sources) {
+			this.sources.clear();
+		}
+	}
+
+	public DeezerAudioTrack.SourceWithFormat resolve(HttpInterface httpInterface, String trackId, String arl, DeezerTokenTracker.Tokens tokens) throws IOException, URISyntaxException {
+		var cached = this.getCached(arl, trackId);
+		if (cached != null) {
+			log.debug("Using prefetched media url for track {}", trackId);
+			return cached;
+		}
+
+		var ids = new ArrayList<String>();
+		ids.add(trackId);
+		List<String> next;
+		synchronized (this.upcoming) {
+			next = this.upcoming.get(trackId);
+		}
+		if (next != null) {
+			for (var id : next) {
+				if (this.getCached(arl, id) == null) {
+					ids.add(id);
+				}
+			}
+		}
+
+		var resolved = this.resolveBatch(httpInterface, ids, tokens.api, tokens.license);
+		var resolvedSource = resolved.get(trackId);
+		if (resolvedSource == null) {
+			throw new IllegalStateException("No media found in response");
+		}
+
+		var expireAt = System.currentTimeMillis() + MAX_SOURCE_AGE.toMillis();
+		synchronized (this.sources) {
+			for (var entry : resolved.entrySet()) {
+				if (!entry.getKey().equals(trackId)) {
+					this.sources.put(arl + ":" + entry.getKey(), new CachedSource(entry.getValue(), Math.min(expireAt, entry.getValue().expireAt)));
+				}
+			}
+		}
+		return resolvedSource.source;
+	}
+
+	/**
+	 * Resolves the media url of a single track, without prefetching the tracks after it or using prefetched urls.
+	 */
+	public DeezerAudioTrack.SourceWithFormat resolveUncached(HttpInterface httpInterface, String trackId, String apiToken, String licenseToken) throws IOException, URISyntaxException {
+		var resolved = this.resolveBatch(httpInterface, List.of(trackId), apiToken, licenseToken).get(trackId);
+		if (resolved == null) {
+			throw new IllegalStateException("No media found in response");
+		}
+		return resolved.source;
+	}
+
+	private DeezerAudioTrack.SourceWithFormat getCached(String arl, String trackId) {
+		synchronized (this.sources) {
+			var key = arl + ":" + trackId;
+			var cached = this.sources.get(key);
+			if (cached == null) {
+				return null;
+			}
+			if (cached.expireAt < System.currentTimeMillis()) {
+				this.sources.remove(key);
+				return null;
+			}
+			return cached.source;
+		}
+	}
+
+	private Map<String, CachedSource> resolveBatch(HttpInterface httpInterface, List<String> ids, String apiToken, String licenseToken) throws IOException, URISyntaxException {
+		var getTrackTokens = new HttpPost(DeezerAudioSourceManager.PRIVATE_API_BASE + "?method=song.getListData&input=3&api_version=1.0&api_token=" + apiToken);
+		getTrackTokens.setEntity(new StringEntity("{\"sng_ids\":[" + ids.stream().map(id -> "\"" + id + "\"").collect(Collectors.joining(",")) + "]}", ContentType.APPLICATION_JSON));
+		var trackTokensJson = LavaSrcTools.fetchResponseAsJson(httpInterface, getTrackTokens);
+		DeezerAudioSourceManager.checkResponse(trackTokensJson, "Failed to get track tokens");
+
+		var tracks = new ArrayList<JsonBrowser>();
+		var trackTokens = new ArrayList<String>();
+		for (var track : trackTokensJson.get("results").get("data").values()) {
+			if (!track.get("TRACK_TOKEN").isNull()) {
+				tracks.add(track);
+				trackTokens.add("\"" + track.get("TRACK_TOKEN").text() + "\"");
+			}
+		}
+		if (tracks.isEmpty()) {
+			return Map.of();
+		}
+
+		var getMediaURL = new HttpPost(DeezerAudioSourceManager.MEDIA_BASE + "/get_url");
+		getMediaURL.setEntity(new StringEntity("{\"license_token\":\"" + licenseToken + "\",\"media\":[{\"type\":\"FULL\",\"formats\":[" + DeezerAudioTrack.formatFormats(this.sourceManager.getFormats()) + "]}],\"track_tokens\":[" + String.join(",", trackTokens) + "]}", ContentType.APPLICATION_JSON));
+		var json = LavaSrcTools.fetchResponseAsJson(httpInterface, getMediaURL);
+		DeezerAudioSourceManager.checkResponse(json, "Failed to get media URL");
+
+		// media entries are returned in the same order as the track tokens
+		var data = json.get("data").values();
+		var sources = new HashMap<String, CachedSource>();
+		for (var i = 0; i < tracks.size() && i < data.size(); i++) {
+			var track = tracks.get(i);
+			var media = data.get(i).get("media").index(0);
+			if (media.isNull()) {
+				log.debug("No media found for track {}", track.get("SNG_ID").text());
+				continue;
+			}
+			var source = DeezerAudioTrack.SourceWithFormat.fromMedia(media, track);
+			var expireAt = media.get("exp").asLong(0) * 1000 - EXPIRY_MARGIN.toMillis();
+			sources.put(track.get("SNG_ID").text(), new CachedSource(source, expireAt > 0 ? expireAt : Long.MAX_VALUE));
+		}
+		return sources;
+	}
+
+	private static class CachedSource {
+		private final DeezerAudioTrack.SourceWithFormat source;
+		private final long expireAt;
+
+		private CachedSource(DeezerAudioTrack.SourceWithFormat source, long expireAt) {
+			this.source = source;
+			this.expireAt = expireAt;
+		}
+	}
+
+}
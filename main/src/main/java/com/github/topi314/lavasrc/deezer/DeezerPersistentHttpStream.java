@@ -1,6 +1,5 @@
 package com.github.topi314.lavasrc.deezer;
 
-import com.sedmelluq.discord.lavaplayer.tools.io.ByteBufferInputStream;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.PersistentHttpStream;
 import org.apache.http.HttpResponse;
@@ -9,16 +8,17 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 
 public class DeezerPersistentHttpStream extends PersistentHttpStream {
 
@@ -40,16 +40,14 @@ public class DeezerPersistentHttpStream extends PersistentHttpStream {
 		private static final byte[] iv = new byte[]{0, 1, 2, 3, 4, 5, 6, 7};
 
 		private final InputStream in;
-		private final ByteBuffer buff;
-		private final InputStream out;
+		private final byte[] chunk = new byte[BLOCK_SIZE];
 		private final Cipher cipher;
+		private int chunkPosition;
+		private int chunkLength;
 		private long i;
-		private boolean filled;
 
 		public DecryptingInputStream(InputStream in, byte[] keyMaterial, long position) throws IOException {
 			this.in = new BufferedInputStream(in);
-			this.buff = ByteBuffer.allocate(BLOCK_SIZE);
-			this.out = new ByteBufferInputStream(this.buff);
 
 			try {
 				cipher = Cipher.getInstance("Blowfish/CBC/NoPadding");
@@ -67,28 +65,72 @@ public class DeezerPersistentHttpStream extends PersistentHttpStream {
 			}
 		}
 
-		@Override
-		public int read() throws IOException {
-			if (this.filled && this.out.available() > 0) {
-				return this.out.read();
+		/**
+		 * Reads the next chunk and decrypts it in place if needed.
+		 *
+		 * @return false if the end of the stream was reached
+		 */
+		private boolean fillChunk() throws IOException {
+			var length = this.in.readNBytes(this.chunk, 0, BLOCK_SIZE);
+			this.chunkPosition = 0;
+			this.chunkLength = length;
+			if (length == 0) {
+				return false;
 			}
-			var chunk = this.in.readNBytes(BLOCK_SIZE);
-			this.buff.clear();
-			this.filled = true;
-			if (this.i % 3 > 0 || chunk.length < BLOCK_SIZE) {
-				this.buff.put(chunk);
-			} else {
-				byte[] decryptedChunk;
+			// every third full chunk is encrypted, a trailing partial chunk never is
+			if (this.i % 3 == 0 && length == BLOCK_SIZE) {
 				try {
-					decryptedChunk = this.cipher.doFinal(chunk);
-				} catch (IllegalBlockSizeException | BadPaddingException e) {
+					this.cipher.doFinal(this.chunk, 0, BLOCK_SIZE, this.chunk, 0);
+				} catch (IllegalBlockSizeException | BadPaddingException | ShortBufferException e) {
 					throw new RuntimeException(e);
 				}
-				this.buff.put(decryptedChunk);
 			}
-			i++;
-			this.buff.flip();
-			return this.out.read();
+			this.i++;
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.chunkPosition >= this.chunkLength && !this.fillChunk()) {
+				return -1;
+			}
+			return this.chunk[this.chunkPosition++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, b.length);
+			if (len == 0) {
+				return 0;
+			}
+
+			var read = 0;
+			while (read < len) {
+				if (this.chunkPosition >= this.chunkLength) {
+					// only block for more data if nothing was read yet
+					if (read > 0 && this.in.available() <= 0) {
+						break;
+					}
+					if (!this.fillChunk()) {
+						break;
+					}
+				}
+				var count = Math.min(len - read, this.chunkLength - this.chunkPosition);
+				System.arraycopy(this.chunk, this.chunkPosition, b, off + read, count);
+				this.chunkPosition += count;
+				read += count;
+			}
+			return read == 0 ? -1 : read;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return this.chunkLength - this.chunkPosition;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
 		}
 
 	}
@@ -1,24 +1,44 @@
 package com.github.topi314.lavasrc.deezer;
 
 import com.github.topi314.lavasrc.LavaSrcTools;
+import com.github.topi314.lavasrc.TokenHolder;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class DeezerTokenTracker {
 
+	private static final int MAX_ARL_TOKENS = 100;
+	// user sessions are often only used for a single track, don't keep refreshing them afterwards
+	private static final Duration ARL_IDLE_TIMEOUT = Duration.ofHours(1);
+
 	private final DeezerAudioSourceManager sourceManager;
 
 
 	private String arl;
 
-	private Tokens tokens;
-
+	private final TokenHolder<Tokens> tokens = new TokenHolder<>("Deezer", () -> this.refreshSession(null), value -> value.expireAt, Duration.ofMinutes(5));
+	private final Map<String, TokenHolder<Tokens>> arlTokens = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TokenHolder<Tokens>> eldest) {
+			if (this.size() > MAX_ARL_TOKENS) {
+				eldest.getValue().invalidate();
+				return true;
+			}
+			return false;
+		}
+	};
 
 	public DeezerTokenTracker(DeezerAudioSourceManager sourceManager, String arl) {
 		this.sourceManager = sourceManager;
@@ -37,11 +57,45 @@ public class DeezerTokenTracker {
 			throw new NullPointerException("Deezer arl must be set");
 		}
 		this.arl = arl;
+		this.tokens.invalidate();
+	}
+
+	/**
+	 * Sets the cookies of a user session on the http interface.
+	 *
+	 * @param arl    the arl of the user
+	 * @param tokens the session tokens of the arl or null to only set the arl
+	 */
+	static void applyCookies(HttpInterface httpInterface, String arl, @Nullable Tokens tokens) {
+		var cookieStore = new BasicCookieStore();
+		cookieStore.addCookie(createCookie("arl", arl));
+		if (tokens != null) {
+			cookieStore.addCookie(createCookie("sid", tokens.sessionId));
+			cookieStore.addCookie(createCookie("dzr_uniq_id", tokens.dzrUniqId));
+		}
+		httpInterface.getContext().setCookieStore(cookieStore);
+		httpInterface.getContext().setRequestConfig(
+			RequestConfig.copy(httpInterface.getContext().getRequestConfig())
+				.setCookieSpec(CookieSpecs.STANDARD)
+				.build()
+		);
+	}
+
+	private static BasicClientCookie createCookie(String name, String value) {
+		var cookie = new BasicClientCookie(name, value);
+		cookie.setPath("/");
+		cookie.setSecure(true);
+		cookie.setDomain("deezer.com");
+		cookie.setAttribute("domain", ".deezer.com");
+		return cookie;
 	}
 
-	private void refreshSession() throws IOException {
+	private Tokens refreshSession(@Nullable String arl) throws IOException {
 		try (var httpInterface = sourceManager.getHttpInterface()) {
 			var cookieStore = new BasicCookieStore();
+			if (arl != null) {
+				cookieStore.addCookie(createCookie("arl", arl));
+			}
 			httpInterface.getContext().setCookieStore(cookieStore);
 			httpInterface.getContext().setRequestConfig(
 				RequestConfig.copy(httpInterface.getContext().getRequestConfig())
@@ -73,7 +127,7 @@ public class DeezerTokenTracker {
 				throw new IOException("Failed to find dzr uniq id cookie");
 			}
 
-			this.tokens = new Tokens(
+			return new Tokens(
 				sessionID,
 				dzrUniqId,
 				json.get("results").get("checkForm").text(),
@@ -84,18 +138,41 @@ public class DeezerTokenTracker {
 	}
 
 	public Tokens getTokens() throws IOException {
-		if (this.tokens == null || Instant.now().isAfter(this.tokens.expireAt)) {
-			this.refreshSession();
+		return this.tokens.get();
+	}
+
+	/**
+	 * @return the cached session tokens of the given user, they are refreshed before they expire while they were used within the last hour
+	 */
+	public Tokens getTokens(String arl) throws IOException {
+		return this.getArlTokens(arl).get();
+	}
+
+	/**
+	 * Forgets the cached session tokens of the given user, for example after they got rejected.
+	 */
+	public void invalidateTokens(String arl) {
+		TokenHolder<Tokens> holder;
+		synchronized (this.arlTokens) {
+			holder = this.arlTokens.remove(arl);
+		}
+		if (holder != null) {
+			holder.invalidate();
+		}
+	}
+
+	private TokenHolder<Tokens> getArlTokens(String arl) {
+		synchronized (this.arlTokens) {
+			return this.arlTokens.computeIfAbsent(arl, key -> new TokenHolder<>("Deezer user", () -> this.refreshSession(key), value -> value.expireAt, Duration.ofMinutes(5), ARL_IDLE_TIMEOUT));
 		}
-		return this.tokens;
 	}
 
 	public static class Tokens {
-		public String sessionId;
-		public String dzrUniqId;
-		public String api;
-		public String license;
-		public Instant expireAt;
+		public final String sessionId;
+		public final String dzrUniqId;
+		public final String api;
+		public final String license;
+		public final Instant expireAt;
 
 		public Tokens(String sessionId, String dzrUniqId, String api, String license, Instant expireAt) {
 			this.sessionId = sessionId;
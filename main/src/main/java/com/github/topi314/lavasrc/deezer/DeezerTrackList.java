@@ -0,0 +1,65 @@
+package com.github.topi314.lavasrc.deezer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * A page of tracks as returned by the public API, e.g. /playlist/{id}/tracks or /search.
+ * Decoded straight from the response stream with only the fields we need, as these lists can have thousands of tracks.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+class DeezerTrackList {
+
+	private static final ObjectReader READER = new ObjectMapper().readerFor(DeezerTrackList.class);
+	private static final ObjectReader TRACK_READER = READER.forType(Track.class);
+
+	public List<Track> data = List.of();
+
+	static DeezerTrackList read(InputStream stream) throws IOException {
+		return READER.readValue(stream);
+	}
+
+	/**
+	 * Reads a single track as returned by /track/{id}.
+	 */
+	static Track readTrack(InputStream stream) throws IOException {
+		return TRACK_READER.readValue(stream);
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Track {
+		public String id;
+		public String type;
+		public boolean readable;
+		public String title;
+		public long duration;
+		public String isrc;
+		public String preview;
+		@JsonProperty("available_countries")
+		public List<String> availableCountries;
+		public Artist artist = new Artist();
+		public Album album = new Album();
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Artist {
+		public String id;
+		public String name;
+		@JsonProperty("picture_xl")
+		public String pictureXl;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Album {
+		public String id;
+		public String title;
+		@JsonProperty("cover_xl")
+		public String coverXl;
+	}
+}
@@ -9,4 +9,9 @@ public class GaanaAudioPlaylist extends ExtendedAudioPlaylist {
     public GaanaAudioPlaylist(String name, List<AudioTrack> tracks, Type type, String url, String artworkURL, String author, Integer totalTracks) {
         super(name, tracks, type, url, artworkURL, author, totalTracks);
     }
+
+    @Override
+    public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+        return new GaanaAudioPlaylist(getName(), tracks, type, url, artworkURL, author, totalTracks);
+    }
 }
@@ -3,6 +3,7 @@ package com.github.topi314.lavasrc.gaana;
 import com.github.topi314.lavasrc.ExtendedAudioPlaylist;
 import com.github.topi314.lavasrc.ExtendedAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
@@ -19,8 +20,16 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.http.client.config.RequestConfig;
@@ -41,7 +50,14 @@ public class GaanaAudioSourceManager extends ExtendedAudioSourceManager implemen
 
     public static final Pattern URL_PATTERN = Pattern.compile("https?://(?:www\\.)?gaana\\.com/(?<type>song|album|playlist|artist)/(?<identifier>[\\w-]+)");
 
+    private static final int SEARCH_CONCURRENCY = 8;
+    private static final int SEARCH_SPARE_RESULTS = 3;
+    private static final Duration SEARCH_TIMEOUT = Duration.ofSeconds(10);
+
     private int searchLimit = 20;
+    private final ExecutorService searchExecutor = createSearchExecutor();
+    private final GaanaDownloadScheduler downloadScheduler = new GaanaDownloadScheduler();
+    private final GaanaKeyCache keyCache = new GaanaKeyCache();
 
     public GaanaAudioSourceManager() {
         super();
@@ -57,12 +73,34 @@ public class GaanaAudioSourceManager extends ExtendedAudioSourceManager implemen
         return "gaana";
     }
 
+    private static ExecutorService createSearchExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(SEARCH_CONCURRENCY, SEARCH_CONCURRENCY, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new DaemonThreadFactory("gaana-search"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public void setSearchLimit(int searchLimit) {
         this.searchLimit = searchLimit > 0 ? searchLimit : 20;
     }
 
+    /**
+     * Sets how many segment downloads run at the same time across all Gaana streams, 0 or less for the default.
+     */
+    public void setDownloadConcurrency(int downloadConcurrency) {
+        this.downloadScheduler.setMaxThreads(downloadConcurrency);
+    }
+
+    public GaanaDownloadScheduler getDownloadScheduler() {
+        return downloadScheduler;
+    }
+
+    public GaanaKeyCache getKeyCache() {
+        return keyCache;
+    }
+
     @Override
-    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+    protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
         try {
             String identifier = reference.identifier;
 
@@ -109,21 +147,48 @@ public class GaanaAudioSourceManager extends ExtendedAudioSourceManager implemen
             return AudioReference.NO_TRACK;
         }
 
-        List<AudioTrack> results = new ArrayList<>();
+        // the search results don't carry all track details, load them concurrently
+        List<Future<AudioItem>> songs = new ArrayList<>();
         for (JsonBrowser item : trackGroup.get("gd").values()) {
+            // a few spare requests make up for results which fail to load
+            if (songs.size() >= searchLimit + SEARCH_SPARE_RESULTS) break;
             String seokey = item.get("seo").text();
             if (seokey == null) seokey = item.get("id").text();
             if (seokey != null) {
+                String key = seokey;
+                songs.add(searchExecutor.submit(() -> loadSong(key)));
+            }
+        }
+
+        List<AudioTrack> results = new ArrayList<>();
+        long deadline = System.nanoTime() + SEARCH_TIMEOUT.toNanos();
+        boolean timedOut = false;
+        try {
+            for (Future<AudioItem> song : songs) {
+                if (results.size() >= searchLimit) break;
+                // after the deadline only results which already loaded are taken
+                if (timedOut && !song.isDone()) continue;
                 try {
-                    AudioItem track = loadSong(seokey);
+                    AudioItem track = song.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
                     if (track instanceof AudioTrack) {
                         results.add((AudioTrack) track);
-                        if (results.size() >= searchLimit) break;
                     }
-                } catch (Exception e) {
-                    log.debug("Failed to load search result: {}", seokey, e);
+                } catch (ExecutionException e) {
+                    log.debug("Failed to load search result", e.getCause());
+                } catch (TimeoutException e) {
+                    timedOut = true;
                 }
             }
+            if (timedOut) {
+                log.debug("Search for {} timed out, returning {} results", query, results.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading search results", e);
+        } finally {
+            for (Future<AudioItem> song : songs) {
+                song.cancel(true);
+            }
         }
 
         if (results.isEmpty()) {
@@ -330,6 +395,8 @@ public class GaanaAudioSourceManager extends ExtendedAudioSourceManager implemen
 
     @Override
     public void shutdown() {
+        downloadScheduler.shutdown();
+        searchExecutor.shutdownNow();
         try {
             httpInterfaceManager.close();
         } catch (IOException e) {
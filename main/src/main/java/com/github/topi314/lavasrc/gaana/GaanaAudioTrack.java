@@ -74,16 +74,22 @@ public class GaanaAudioTrack extends DelegatedAudioTrack {
 
     private void playback(LocalAudioTrackExecutor executor) throws Exception {
         try (HttpInterface httpInterface = sourceManager.getHttpInterface()) {
+            GaanaStreamSession session = null;
+            long resumePosition = 0;
             while (true) {
-                long startPosition = seeking ? seekTarget : (tokenExpired && hlsStream != null ? hlsStream.getPosition() : 0);
+                long startPosition = seeking ? seekTarget : (tokenExpired ? resumePosition : 0);
                 seeking = false;
-                tokenExpired = false;
 
-                String hlsUrl = fetchStreamUrl(httpInterface, trackInfo.identifier);
-                log.debug("HLS URL: {}", hlsUrl);
+                // the playlist is reused for seeks, the stream url is only fetched again once its token expired
+                if (session == null || tokenExpired) {
+                    tokenExpired = false;
+                    String hlsUrl = fetchStreamUrl(httpInterface, trackInfo.identifier);
+                    log.debug("HLS URL: {}", hlsUrl);
+                    session = GaanaStreamSession.create(httpInterface, hlsUrl);
+                }
 
                 try {
-                    hlsStream = new GaanaHlsInputStream(httpInterface, hlsUrl, trackInfo.length, startPosition, this);
+                    hlsStream = new GaanaHlsInputStream(session, startPosition, this);
                     BufferedInputStream bufferedStream = new BufferedInputStream(hlsStream, 65536);
 
                     MpegTsElementaryInputStream tsStream = new MpegTsElementaryInputStream(
@@ -93,6 +99,10 @@ public class GaanaAudioTrack extends DelegatedAudioTrack {
                     AdtsAudioTrack adtsTrack = new AdtsAudioTrack(trackInfo, pesStream);
 
                     adtsTrack.process(executor);
+                    if (seeking || tokenExpired) {
+                        // the stream was closed to restart it, the decoder saw that as the end of the track
+                        continue;
+                    }
                     break;
 
                 } catch (Exception e) {
@@ -102,6 +112,9 @@ public class GaanaAudioTrack extends DelegatedAudioTrack {
                     }
                     throw e;
                 } finally {
+                    if (hlsStream != null) {
+                        resumePosition = hlsStream.getPosition();
+                    }
                     hlsStream = null;
                 }
             }
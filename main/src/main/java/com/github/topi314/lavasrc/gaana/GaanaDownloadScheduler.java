@@ -0,0 +1,290 @@
+package com.github.topi314.lavasrc.gaana;
+
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Runs the segment downloads of all Gaana streams on a bounded set of threads.
+ * Every stream gets its own {@link Lane}, lanes with pending downloads are served round-robin,
+ * so a stream prefetching several segments can't delay the first segment of another stream.
+ * On Java 21+ the downloads run on virtual threads, which allows a higher default limit.
+ * Workers are kept between downloads, so the per thread HTTP clients and ciphers are reused.
+ * Failed downloads wait for their retry outside of the pool, so a backoff never holds a download slot.
+ */
+public class GaanaDownloadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(GaanaDownloadScheduler.class);
+
+    /**
+     * Limit used without virtual threads, downloads are mostly waiting on the network.
+     */
+    public static final int DEFAULT_MAX_THREADS = 16;
+    /**
+     * Limit used with virtual threads, still bounded so thousands of players don't flood Gaana with requests.
+     */
+    public static final int DEFAULT_MAX_VIRTUAL_THREADS = 64;
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("gaana-download-retry"));
+    private final Deque<Lane> readyLanes = new ArrayDeque<>();
+
+    public GaanaDownloadScheduler() {
+        this(0);
+    }
+
+    /**
+     * @param maxThreads how many downloads run at the same time, 0 or less for the default
+     */
+    public GaanaDownloadScheduler(int maxThreads) {
+        int threads = normalizeMaxThreads(maxThreads);
+        ThreadFactory threadFactory = VIRTUAL_THREAD_FACTORY != null ? VIRTUAL_THREAD_FACTORY : new DaemonThreadFactory("gaana-download");
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param maxThreads how many downloads run at the same time, 0 or less for the default
+     */
+    public void setMaxThreads(int maxThreads) {
+        int threads = normalizeMaxThreads(maxThreads);
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    public Lane createLane() {
+        return new Lane();
+    }
+
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static int normalizeMaxThreads(int maxThreads) {
+        if (maxThreads > 0) {
+            return maxThreads;
+        }
+        return VIRTUAL_THREAD_FACTORY != null ? DEFAULT_MAX_VIRTUAL_THREADS : DEFAULT_MAX_THREADS;
+    }
+
+    private void runNext() {
+        Lane lane;
+        Task<?> task;
+        synchronized (readyLanes) {
+            lane = readyLanes.poll();
+            if (lane == null) {
+                // the lane was closed after its task was queued
+                return;
+            }
+            task = lane.tasks.poll();
+            if (lane.tasks.isEmpty()) {
+                lane.ready = false;
+            } else {
+                readyLanes.add(lane);
+            }
+            lane.running.add(task);
+        }
+        long retryDelay;
+        try {
+            retryDelay = task.run();
+        } finally {
+            synchronized (readyLanes) {
+                lane.running.remove(task);
+            }
+        }
+        if (retryDelay < 0) {
+            return;
+        }
+
+        synchronized (readyLanes) {
+            if (lane.closed) {
+                task.cancel();
+                return;
+            }
+            lane.delayed.add(task);
+        }
+        try {
+            retryScheduler.schedule(() -> lane.retry(task), retryDelay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            task.cancel();
+        }
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().name("gaana-download-", 0).factory(), looked up reflectively to keep Java 11 compatibility
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "gaana-download-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            log.debug("Using virtual threads for Gaana segment downloads");
+            return factory;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Download queue of a single stream.
+     */
+    public class Lane implements AutoCloseable {
+
+        private final Deque<Task<?>> tasks = new ArrayDeque<>();
+        private final Set<Task<?>> running = new HashSet<>();
+        private final Set<Task<?>> delayed = new HashSet<>();
+        private boolean ready;
+        private boolean closed;
+
+        private Lane() {
+        }
+
+        public <T> CompletableFuture<T> submit(Callable<T> callable) {
+            return submit(callable, 0, e -> false);
+        }
+
+        /**
+         * Like {@link #submit(Callable)}, but retries failed downloads after 1s, 2s, 4s and so on.
+         *
+         * @param retries   how often a download is retried
+         * @param retryable whether a failure is worth retrying
+         */
+        public <T> CompletableFuture<T> submit(Callable<T> callable, int retries, Predicate<Throwable> retryable) {
+            Task<T> task = new Task<>(callable, retries, retryable);
+            synchronized (readyLanes) {
+                if (closed) {
+                    task.future.cancel(false);
+                    return task.future;
+                }
+                tasks.add(task);
+                markReady();
+            }
+            executor.execute(GaanaDownloadScheduler.this::runNext);
+            return task.future;
+        }
+
+        private void retry(Task<?> task) {
+            synchronized (readyLanes) {
+                if (!delayed.remove(task)) {
+                    // the lane was closed during the backoff
+                    return;
+                }
+                // the reader waits for the oldest segment first, so the retry goes to the front of the lane
+                tasks.addFirst(task);
+                markReady();
+            }
+            try {
+                executor.execute(GaanaDownloadScheduler.this::runNext);
+            } catch (RejectedExecutionException e) {
+                task.cancel();
+            }
+        }
+
+        private void markReady() {
+            if (!ready) {
+                ready = true;
+                readyLanes.add(this);
+            }
+        }
+
+        /**
+         * Cancels all queued downloads of this lane and interrupts the running ones.
+         */
+        @Override
+        public void close() {
+            List<Task<?>> cancelled;
+            synchronized (readyLanes) {
+                closed = true;
+                if (ready) {
+                    readyLanes.remove(this);
+                    ready = false;
+                }
+                cancelled = new ArrayList<>(tasks);
+                cancelled.addAll(running);
+                cancelled.addAll(delayed);
+                tasks.clear();
+                delayed.clear();
+            }
+            for (Task<?> task : cancelled) {
+                task.cancel();
+            }
+        }
+    }
+
+    private static class Task<T> {
+
+        private final Callable<T> callable;
+        private final int retries;
+        private final Predicate<Throwable> retryable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private Thread thread;
+        private int attempt;
+
+        private Task(Callable<T> callable, int retries, Predicate<Throwable> retryable) {
+            this.callable = callable;
+            this.retries = retries;
+            this.retryable = retryable;
+        }
+
+        /**
+         * @return how many milliseconds to wait before running the task again, or -1 if it is done
+         */
+        private long run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return -1;
+                }
+                thread = Thread.currentThread();
+            }
+            try {
+                future.complete(callable.call());
+                return -1;
+            } catch (Throwable e) {
+                if (attempt < retries && !future.isDone() && !(e instanceof InterruptedException) && retryable.test(e)) {
+                    long delay = 1000L << attempt++;
+                    log.warn("Gaana download failed, retry {} in {}ms: {}", attempt, delay, e.getMessage());
+                    return delay;
+                }
+                future.completeExceptionally(e);
+                return -1;
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    // don't leak an interrupt from cancel() into the next task run by this thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void cancel() {
+            future.cancel(false);
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -1,72 +1,64 @@
 package com.github.topi314.lavasrc.gaana;
 
-import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class GaanaHlsInputStream extends InputStream {
 
     private static final Logger log = LoggerFactory.getLogger(GaanaHlsInputStream.class);
-    private static final int SEGMENT_BUFFER_SIZE = 5;
+    private static final int PREFETCH_SEGMENTS = 5;
+    private static final int SEGMENT_RETRIES = 2;
 
-    private final HttpInterface httpInterface;
+    private final GaanaStreamSession session;
     private final GaanaSegmentFetcher segmentFetcher;
     private final GaanaAudioTrack track;
+    private final GaanaDownloadScheduler.Lane downloads;
 
-    private List<GaanaPlaylistParser.Segment> segments;
-    private String playlistUrl;
+    private final List<GaanaPlaylistParser.Segment> segments;
 
-    private final BlockingQueue<SegmentData> segmentQueue;
+    private final Deque<PendingSegment> pendingSegments = new ArrayDeque<>();
     private final AtomicBoolean stopped = new AtomicBoolean(false);
-    private final AtomicInteger currentVersion = new AtomicInteger(0);
-    private Set<Integer> processedSequences = new HashSet<>();
 
     private byte[] currentBuffer;
     private int bufferPosition;
     private int currentSegmentIndex;
-    private Thread downloadThread;
+    private int nextSegmentIndex;
     private String lastMapUri;
 
-    private static class SegmentData {
-        final byte[] data;
-        final int sequence;
-        final int version;
+    private static class PendingSegment {
+        final int index;
+        Future<byte[]> map;
+        final Future<byte[]> data;
 
-        SegmentData(byte[] data, int sequence, int version) {
+        PendingSegment(int index, Future<byte[]> map, Future<byte[]> data) {
+            this.index = index;
+            this.map = map;
             this.data = data;
-            this.sequence = sequence;
-            this.version = version;
         }
     }
 
-    public GaanaHlsInputStream(HttpInterface httpInterface, String hlsUrl, long duration, long startTimeMs, GaanaAudioTrack track) throws IOException {
-        this.httpInterface = httpInterface;
+    public GaanaHlsInputStream(GaanaStreamSession session, long startTimeMs, GaanaAudioTrack track) {
+        GaanaAudioSourceManager sourceManager = (GaanaAudioSourceManager) track.getSourceManager();
+        this.session = session;
+        this.segments = session.getSegments();
         this.track = track;
-        this.segmentFetcher = new GaanaSegmentFetcher(httpInterface, this);
-        this.segmentQueue = new LinkedBlockingQueue<>(SEGMENT_BUFFER_SIZE);
+        this.segmentFetcher = new GaanaSegmentFetcher(sourceManager, this);
 
-        this.playlistUrl = resolveMediaPlaylist(hlsUrl);
-        parsePlaylist(playlistUrl);
-
-        this.currentSegmentIndex = 0;
-        if (startTimeMs > 0) {
-            skipToPosition(startTimeMs);
-        }
-        startDownloadThread();
+        this.currentSegmentIndex = startTimeMs > 0 ? session.findSegment(startTimeMs) : 0;
+        log.debug("Starting at {}ms, segment {}", startTimeMs, currentSegmentIndex);
+        this.nextSegmentIndex = currentSegmentIndex;
+        this.downloads = sourceManager.getDownloadScheduler().createLane();
+        fillWindow();
     }
 
     void onTokenExpired() {
@@ -75,140 +67,67 @@ public class GaanaHlsInputStream extends InputStream {
         }
     }
 
-    private void skipToPosition(long positionMs) {
-        double targetSeconds = positionMs / 1000.0;
-        double elapsed = 0;
-        currentSegmentIndex = 0;
-
-        for (int i = 0; i < segments.size(); i++) {
-            GaanaPlaylistParser.Segment segment = segments.get(i);
-            if (elapsed + segment.duration <= targetSeconds) {
-                elapsed += segment.duration;
-                processedSequences.add(segment.sequence);
-                currentSegmentIndex = i + 1;
-            } else {
-                break;
-            }
-        }
-        log.debug("Skip to {}ms, starting at segment {}", positionMs, currentSegmentIndex);
-    }
-
     public long getPosition() {
-        double elapsed = 0;
-        for (int i = 0; i < currentSegmentIndex && i < segments.size(); i++) {
-            elapsed += segments.get(i).duration;
-        }
-        return (long) (elapsed * 1000);
+        return session.getSegmentStart(currentSegmentIndex);
     }
 
-    private String resolveMediaPlaylist(String url) throws IOException {
-        String content = fetchPlaylistContent(url);
-        GaanaPlaylistParser.PlaylistResult result;
-        try {
-            result = GaanaPlaylistParser.parse(content, url);
-        } catch (Exception e) {
-            throw new IOException("Failed to parse playlist", e);
-        }
-
-        if (!result.isMaster) {
-            return url;
-        }
-
-        GaanaPlaylistParser.Variant bestVariant = null;
-        for (GaanaPlaylistParser.Variant variant : result.variants) {
-            if ((variant.codecs.contains("mp4a") || variant.codecs.contains("opus")) && !variant.codecs.contains("avc1")) {
-                if (bestVariant == null || variant.bandwidth > bestVariant.bandwidth) {
-                    bestVariant = variant;
-                }
-            }
-        }
-        if (bestVariant == null) {
-            for (GaanaPlaylistParser.Variant variant : result.variants) {
-                if (variant.codecs.contains("mp4a") || variant.codecs.contains("opus")) {
-                    if (bestVariant == null || variant.bandwidth > bestVariant.bandwidth) {
-                        bestVariant = variant;
-                    }
-                }
+    private void fillWindow() {
+        // keep up to PREFETCH_SEGMENTS segments downloading ahead of the reader, the deque keeps them in playlist order
+        while (nextSegmentIndex < segments.size() && pendingSegments.size() < PREFETCH_SEGMENTS) {
+            GaanaPlaylistParser.Segment segment = segments.get(nextSegmentIndex);
+            Future<byte[]> map = null;
+            if (segment.map != null && !segment.map.uri.equals(lastMapUri)) {
+                lastMapUri = segment.map.uri;
+                map = downloads.submit(() -> segmentFetcher.fetchMap(segment.map, segment.key));
             }
+            Future<byte[]> data = downloads.submit(() -> segmentFetcher.fetchSegment(segment), SEGMENT_RETRIES, GaanaSegmentFetcher::isRetryable);
+            pendingSegments.add(new PendingSegment(nextSegmentIndex++, map, data));
         }
-        if (bestVariant == null && !result.variants.isEmpty()) {
-            bestVariant = result.variants.get(0);
-        }
-        if (bestVariant == null) {
-            throw new IOException("No suitable variant found");
-        }
-
-        log.debug("Selected variant: bandwidth={}, codecs={}", bestVariant.bandwidth, bestVariant.codecs);
-        return bestVariant.url;
     }
 
-    private void parsePlaylist(String url) throws IOException {
-        String content = fetchPlaylistContent(url);
-        try {
-            GaanaPlaylistParser.PlaylistResult result = GaanaPlaylistParser.parse(content, url);
-            if (result.isMaster) {
-                throw new IOException("Expected media playlist");
+    private boolean nextBuffer() throws IOException {
+        while (!stopped.get()) {
+            fillWindow();
+            PendingSegment pending = pendingSegments.peek();
+            if (pending == null) {
+                return false;
+            }
+
+            byte[] data;
+            if (pending.map != null) {
+                data = awaitFetch(pending.map, "Init segment", pending.index);
+                pending.map = null;
+            } else {
+                pendingSegments.poll();
+                data = awaitFetch(pending.data, "Segment", pending.index);
+                currentSegmentIndex = pending.index + 1;
             }
-            this.segments = result.segments;
-        } catch (Exception e) {
-            throw new IOException("Failed to parse playlist", e);
-        }
-    }
 
-    private String fetchPlaylistContent(String url) throws IOException {
-        HttpGet request = new HttpGet(url);
-        try (CloseableHttpResponse response = httpInterface.execute(request)) {
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode != 200) {
-                throw new IOException("Playlist fetch failed: " + statusCode);
+            if (data != null) {
+                currentBuffer = data;
+                bufferPosition = 0;
+                return true;
             }
-            return readString(response.getEntity().getContent());
         }
+        return false;
     }
 
-    private void startDownloadThread() {
-        int version = currentVersion.get();
-        downloadThread = new Thread(() -> downloadSegments(currentSegmentIndex, version), "Gaana-HLS");
-        downloadThread.setDaemon(true);
-        downloadThread.start();
+    private boolean isNextBufferReady() {
+        PendingSegment pending = pendingSegments.peek();
+        return pending != null && (pending.map != null ? pending.map.isDone() : pending.data.isDone());
     }
 
-    private void downloadSegments(int startIndex, int version) {
+    private byte[] awaitFetch(Future<byte[]> future, String type, int index) throws IOException {
         try {
-            for (int i = startIndex; i < segments.size() && !stopped.get(); i++) {
-                if (version != currentVersion.get()) return;
-
-                GaanaPlaylistParser.Segment segment = segments.get(i);
-                if (processedSequences.contains(segment.sequence)) continue;
-
-                if (segment.map != null && !segment.map.uri.equals(lastMapUri)) {
-                    try {
-                        byte[] mapData = segmentFetcher.fetchMap(segment.map, segment.key);
-                        if (mapData != null && version == currentVersion.get()) {
-                            segmentQueue.put(new SegmentData(mapData, -1, version));
-                            lastMapUri = segment.map.uri;
-                        }
-                    } catch (Exception e) {
-                        log.warn("Init segment fetch failed: {}", e.getMessage());
-                    }
-                }
-
-                try {
-                    byte[] segmentData = segmentFetcher.fetchSegment(segment);
-                    if (version == currentVersion.get()) {
-                        segmentQueue.put(new SegmentData(segmentData, segment.sequence, version));
-                        processedSequences.add(segment.sequence);
-                    }
-                } catch (Exception e) {
-                    log.warn("Segment {} fetch failed: {}", segment.sequence, e.getMessage());
-                }
-
-                while (segmentQueue.size() >= SEGMENT_BUFFER_SIZE && !stopped.get() && version == currentVersion.get()) {
-                    Thread.sleep(100);
-                }
-            }
+            return future.get();
+        } catch (ExecutionException e) {
+            log.warn("{} {} fetch failed: {}", type, segments.get(index).sequence, e.getCause().getMessage());
+            return null;
+        } catch (CancellationException e) {
+            return null;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
         }
     }
 
@@ -234,25 +153,12 @@ public class GaanaHlsInputStream extends InputStream {
                 continue;
             }
 
-            try {
-                SegmentData nextSegment = segmentQueue.poll(5000, TimeUnit.MILLISECONDS);
-                if (nextSegment == null) {
-                    if (currentSegmentIndex >= segments.size() || stopped.get()) {
-                        return totalRead > 0 ? totalRead : -1;
-                    }
-                    continue;
-                }
-
-                if (nextSegment.version != currentVersion.get()) continue;
-
-                currentBuffer = nextSegment.data;
-                bufferPosition = 0;
-                if (nextSegment.sequence >= 0) {
-                    currentSegmentIndex++;
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IOException("Interrupted", e);
+            // hand out what we have instead of waiting for the next download
+            if (totalRead > 0 && !isNextBufferReady()) {
+                break;
+            }
+            if (!nextBuffer()) {
+                break;
             }
         }
 
@@ -267,20 +173,7 @@ public class GaanaHlsInputStream extends InputStream {
     @Override
     public void close() throws IOException {
         stopped.set(true);
-        segmentQueue.clear();
-        if (downloadThread != null) {
-            downloadThread.interrupt();
-        }
+        downloads.close();
         super.close();
     }
-
-    private String readString(InputStream inputStream) throws IOException {
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int bytesRead;
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            output.write(buffer, 0, bytesRead);
-        }
-        return output.toString("UTF-8");
-    }
 }
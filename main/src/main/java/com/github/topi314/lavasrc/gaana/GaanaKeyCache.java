@@ -0,0 +1,82 @@
+package com.github.topi314.lavasrc.gaana;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded LRU cache of HLS decryption keys by key uri, shared by all Gaana streams of a source manager.
+ * Concurrent requests for a key which isn't cached yet share a single fetch.
+ */
+public class GaanaKeyCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final Map<String, CompletableFuture<byte[]>> keys;
+
+    public GaanaKeyCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public GaanaKeyCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be greater than 0");
+        }
+        this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<byte[]>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public byte[] get(String uri, KeyLoader loader) throws IOException {
+        CompletableFuture<byte[]> future;
+        boolean load = false;
+        synchronized (keys) {
+            future = keys.get(uri);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                keys.put(uri, future);
+                load = true;
+            }
+        }
+
+        if (load) {
+            try {
+                future.complete(loader.load());
+            } catch (Throwable e) {
+                // failed fetches are not cached, the next request tries again
+                synchronized (keys) {
+                    keys.remove(uri, future);
+                }
+                future.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Key request failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for key", e);
+        }
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    @FunctionalInterface
+    public interface KeyLoader {
+        byte[] load() throws IOException;
+    }
+}
@@ -13,29 +13,32 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class GaanaSegmentFetcher {
 
     private static final Logger log = LoggerFactory.getLogger(GaanaSegmentFetcher.class);
-    private static final int MAX_CACHED_KEYS = 20;
+    // shared between all streams, downloads may run on a new thread each time so a thread local would not be reused
+    private static final BlockingQueue<Cipher> CIPHERS = new ArrayBlockingQueue<>(GaanaDownloadScheduler.DEFAULT_MAX_VIRTUAL_THREADS);
 
-    private final HttpInterface httpInterface;
+    private final GaanaAudioSourceManager sourceManager;
     private final GaanaHlsInputStream hlsStream;
-    private final Map<String, byte[]> keyCache = new HashMap<>();
 
-    public GaanaSegmentFetcher(HttpInterface httpInterface, GaanaHlsInputStream hlsStream) {
-        this.httpInterface = httpInterface;
+    public GaanaSegmentFetcher(GaanaAudioSourceManager sourceManager, GaanaHlsInputStream hlsStream) {
+        this.sourceManager = sourceManager;
         this.hlsStream = hlsStream;
     }
 
     public byte[] fetchKey(GaanaPlaylistParser.KeyInfo keyInfo) throws IOException {
         if (keyInfo == null || "NONE".equals(keyInfo.method)) return null;
-        if (keyCache.containsKey(keyInfo.uri)) return keyCache.get(keyInfo.uri);
+        return sourceManager.getKeyCache().get(keyInfo.uri, () -> requestKey(keyInfo));
+    }
 
+    private byte[] requestKey(GaanaPlaylistParser.KeyInfo keyInfo) throws IOException {
         HttpGet request = new HttpGet(keyInfo.uri);
-        try (CloseableHttpResponse response = httpInterface.execute(request)) {
+        try (HttpInterface httpInterface = sourceManager.getHttpInterface();
+             CloseableHttpResponse response = httpInterface.execute(request)) {
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode == 403) {
                 hlsStream.onTokenExpired();
@@ -49,11 +52,6 @@ public class GaanaSegmentFetcher {
             if (keyData == null || keyData.length == 0) {
                 throw new IOException("Empty key response");
             }
-
-            if (keyCache.size() >= MAX_CACHED_KEYS) {
-                keyCache.remove(keyCache.keySet().iterator().next());
-            }
-            keyCache.put(keyInfo.uri, keyData);
             return keyData;
         }
     }
@@ -61,8 +59,10 @@ public class GaanaSegmentFetcher {
     public byte[] fetchMap(GaanaPlaylistParser.MapInfo mapInfo, GaanaPlaylistParser.KeyInfo keyInfo) throws IOException {
         if (mapInfo == null || mapInfo.uri == null) return null;
 
+        byte[] mapData;
         HttpGet request = new HttpGet(mapInfo.uri);
-        try (CloseableHttpResponse response = httpInterface.execute(request)) {
+        try (HttpInterface httpInterface = sourceManager.getHttpInterface();
+             CloseableHttpResponse response = httpInterface.execute(request)) {
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode == 403) {
                 hlsStream.onTokenExpired();
@@ -71,60 +71,52 @@ public class GaanaSegmentFetcher {
             if (statusCode != 200) {
                 throw new IOException("Map request failed: " + statusCode);
             }
+            mapData = readBytes(response.getEntity().getContent());
+        }
 
-            byte[] mapData = readBytes(response.getEntity().getContent());
-            if (keyInfo != null && keyInfo.iv != null && mapData.length % 16 == 0) {
-                byte[] key = fetchKey(keyInfo);
-                if (key != null) {
-                    mapData = decrypt(mapData, key, keyInfo.iv);
-                }
+        if (keyInfo != null && keyInfo.iv != null && mapData.length % 16 == 0) {
+            byte[] key = fetchKey(keyInfo);
+            if (key != null) {
+                mapData = decrypt(mapData, key, keyInfo.iv);
             }
-            return mapData;
         }
+        return mapData;
     }
 
+    /**
+     * Fetches a segment once, see {@link #isRetryable(Throwable)} for which failures are worth retrying.
+     */
     public byte[] fetchSegment(GaanaPlaylistParser.Segment segment) throws IOException {
-        return fetchSegmentWithRetry(segment, 1);
-    }
-
-    private byte[] fetchSegmentWithRetry(GaanaPlaylistParser.Segment segment, int attempt) throws IOException {
-        try {
-            HttpGet request = new HttpGet(segment.url);
-            try (CloseableHttpResponse response = httpInterface.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                if (statusCode == 403) {
-                    log.warn("Segment {} returned 403 - token expired", segment.sequence);
-                    hlsStream.onTokenExpired();
-                    throw new IOException("Token expired");
-                }
-                if (statusCode != 200 && statusCode != 206) {
-                    throw new IOException("Segment request failed: " + statusCode);
-                }
-
-                byte[] segmentData = readBytes(response.getEntity().getContent());
-
-                if (segment.key != null && !"NONE".equals(segment.key.method)) {
-                    byte[] key = fetchKey(segment.key);
-                    byte[] iv = segment.key.iv != null ? segment.key.iv : deriveIvFromSequence(segment.sequence);
-                    segmentData = decrypt(segmentData, key, iv);
-                }
-
-                return segmentData;
+        byte[] segmentData;
+        HttpGet request = new HttpGet(segment.url);
+        try (HttpInterface httpInterface = sourceManager.getHttpInterface();
+             CloseableHttpResponse response = httpInterface.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == 403) {
+                log.warn("Segment {} returned 403 - token expired", segment.sequence);
+                hlsStream.onTokenExpired();
+                throw new IOException("Token expired");
             }
-        } catch (IOException e) {
-            if (attempt <= 2 && !e.getMessage().contains("expired")) {
-                int delayMs = (int) Math.pow(2, attempt) * 500;
-                log.warn("Segment {} retry {}: {}", segment.sequence, attempt, e.getMessage());
-                try {
-                    Thread.sleep(delayMs);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new IOException("Interrupted during retry", ie);
-                }
-                return fetchSegmentWithRetry(segment, attempt + 1);
+            if (statusCode != 200 && statusCode != 206) {
+                throw new IOException("Segment request failed: " + statusCode);
             }
-            throw e;
+            segmentData = readBytes(response.getEntity().getContent());
+        }
+
+        if (segment.key != null && !"NONE".equals(segment.key.method)) {
+            byte[] key = fetchKey(segment.key);
+            byte[] iv = segment.key.iv != null ? segment.key.iv : deriveIvFromSequence(segment.sequence);
+            segmentData = decrypt(segmentData, key, iv);
         }
+
+        return segmentData;
+    }
+
+    /**
+     * Expired tokens fail again until the stream is reloaded, other IO failures are usually temporary.
+     */
+    public static boolean isRetryable(Throwable e) {
+        return e instanceof IOException && (e.getMessage() == null || !e.getMessage().contains("expired"));
     }
 
     private byte[] deriveIvFromSequence(int sequence) {
@@ -135,12 +127,24 @@ public class GaanaSegmentFetcher {
     }
 
     private byte[] decrypt(byte[] data, byte[] key, byte[] iv) throws IOException {
+        Cipher cipher = CIPHERS.poll();
         try {
-            Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+            if (cipher == null) {
+                cipher = Cipher.getInstance("AES/CBC/NoPadding");
+            }
             cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
-            return cipher.doFinal(data);
+            // decrypt in place, the buffers are not used anywhere else
+            cipher.doFinal(data, 0, data.length, data, 0);
+            return data;
         } catch (Exception e) {
+            // the cipher may be left in an unusable state
+            cipher = null;
             throw new IOException("Decryption failed", e);
+        } finally {
+            if (cipher != null) {
+                // dropped if the pool is full
+                CIPHERS.offer(cipher);
+            }
         }
     }
 
@@ -0,0 +1,148 @@
+package com.github.topi314.lavasrc.gaana;
+
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * The resolved media playlist of a Gaana track.
+ * It is kept for the whole playback of a track, so seeks and restarts can start downloading segments right away
+ * instead of fetching the stream url and both playlists again.
+ */
+public class GaanaStreamSession {
+
+    private static final Logger log = LoggerFactory.getLogger(GaanaStreamSession.class);
+
+    private final String playlistUrl;
+    private final List<GaanaPlaylistParser.Segment> segments;
+    // segmentStarts[i] is the start of segment i in ms, segmentStarts[segments.size()] is the total duration
+    private final long[] segmentStarts;
+
+    private GaanaStreamSession(String playlistUrl, List<GaanaPlaylistParser.Segment> segments) {
+        this.playlistUrl = playlistUrl;
+        this.segments = segments;
+        this.segmentStarts = new long[segments.size() + 1];
+        double elapsed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            elapsed += segments.get(i).duration;
+            segmentStarts[i + 1] = (long) (elapsed * 1000);
+        }
+    }
+
+    public static GaanaStreamSession create(HttpInterface httpInterface, String hlsUrl) throws IOException {
+        String playlistUrl = resolveMediaPlaylist(httpInterface, hlsUrl);
+        return new GaanaStreamSession(playlistUrl, parsePlaylist(httpInterface, playlistUrl));
+    }
+
+    public String getPlaylistUrl() {
+        return playlistUrl;
+    }
+
+    public List<GaanaPlaylistParser.Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return the index of the segment containing the position, or the segment count if the position is past the end
+     */
+    public int findSegment(long positionMs) {
+        // last segment which starts at or before the position
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segmentStarts[mid] <= positionMs) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public long getSegmentStart(int index) {
+        return segmentStarts[Math.min(index, segments.size())];
+    }
+
+    private static String resolveMediaPlaylist(HttpInterface httpInterface, String url) throws IOException {
+        String content = fetchPlaylistContent(httpInterface, url);
+        GaanaPlaylistParser.PlaylistResult result;
+        try {
+            result = GaanaPlaylistParser.parse(content, url);
+        } catch (Exception e) {
+            throw new IOException("Failed to parse playlist", e);
+        }
+
+        if (!result.isMaster) {
+            return url;
+        }
+
+        GaanaPlaylistParser.Variant bestVariant = null;
+        for (GaanaPlaylistParser.Variant variant : result.variants) {
+            if ((variant.codecs.contains("mp4a") || variant.codecs.contains("opus")) && !variant.codecs.contains("avc1")) {
+                if (bestVariant == null || variant.bandwidth > bestVariant.bandwidth) {
+                    bestVariant = variant;
+                }
+            }
+        }
+        if (bestVariant == null) {
+            for (GaanaPlaylistParser.Variant variant : result.variants) {
+                if (variant.codecs.contains("mp4a") || variant.codecs.contains("opus")) {
+                    if (bestVariant == null || variant.bandwidth > bestVariant.bandwidth) {
+                        bestVariant = variant;
+                    }
+                }
+            }
+        }
+        if (bestVariant == null && !result.variants.isEmpty()) {
+            bestVariant = result.variants.get(0);
+        }
+        if (bestVariant == null) {
+            throw new IOException("No suitable variant found");
+        }
+
+        log.debug("Selected variant: bandwidth={}, codecs={}", bestVariant.bandwidth, bestVariant.codecs);
+        return bestVariant.url;
+    }
+
+    private static List<GaanaPlaylistParser.Segment> parsePlaylist(HttpInterface httpInterface, String url) throws IOException {
+        String content = fetchPlaylistContent(httpInterface, url);
+        try {
+            GaanaPlaylistParser.PlaylistResult result = GaanaPlaylistParser.parse(content, url);
+            if (result.isMaster) {
+                throw new IOException("Expected media playlist");
+            }
+            return result.segments;
+        } catch (Exception e) {
+            throw new IOException("Failed to parse playlist", e);
+        }
+    }
+
+    private static String fetchPlaylistContent(HttpInterface httpInterface, String url) throws IOException {
+        HttpGet request = new HttpGet(url);
+        try (CloseableHttpResponse response = httpInterface.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                throw new IOException("Playlist fetch failed: " + statusCode);
+            }
+            return readString(response.getEntity().getContent());
+        }
+    }
+
+    private static String readString(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer)) != -1) {
+            output.write(buffer, 0, bytesRead);
+        }
+        return output.toString("UTF-8");
+    }
+}
@@ -10,4 +10,9 @@ public class JioSaavnAudioPlaylist extends ExtendedAudioPlaylist {
 	) {
 		super(name, tracks, type, identifier, artworkURL, author, totalTracks);
 	}
+
+	@Override
+	public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+		return new JioSaavnAudioPlaylist(this.getName(), tracks, this.type, this.url, this.artworkURL, this.author, this.totalTracks);
+	}
 }
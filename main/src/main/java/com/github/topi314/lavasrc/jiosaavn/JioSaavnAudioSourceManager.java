@@ -92,7 +92,8 @@ public class JioSaavnAudioSourceManager extends ExtendedAudioSourceManager imple
 		return null;
 	}
 
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	@Override
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		String identifier = reference.identifier;
 		boolean isPreview = reference.identifier.startsWith(PREVIEW_PREFIX);
 		return this.loadItem(isPreview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, isPreview);
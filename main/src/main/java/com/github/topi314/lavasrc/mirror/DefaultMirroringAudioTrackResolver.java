@@ -5,9 +5,18 @@ import com.github.topi314.lavasrc.spotify.SpotifySourceManager;
 import com.sedmelluq.discord.lavaplayer.track.AudioItem;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class DefaultMirroringAudioTrackResolver implements MirroringAudioTrackResolver {
 
 	private static final Logger log = LoggerFactory.getLogger(DefaultMirroringAudioTrackResolver.class);
@@ -17,15 +26,114 @@ public class DefaultMirroringAudioTrackResolver implements MirroringAudioTrackRe
 		"ytsearch:" + MirroringAudioSourceManager.QUERY_PATTERN
 	};
 
+	@Nullable
+	private final MirroringAudioTrackCache cache;
+	@Nullable
+	private MirroringAudioTrackIndex index;
+	private int raceProviders = 1;
+	private long raceGracePeriod = 250;
+
 	public DefaultMirroringAudioTrackResolver(String[] providers) {
+		this(providers, null);
+	}
+
+	public DefaultMirroringAudioTrackResolver(String[] providers, @Nullable MirroringAudioTrackCache cache) {
 		if (providers != null && providers.length > 0) {
 			this.providers = providers;
 		}
+		this.cache = cache;
+	}
+
+	@Nullable
+	public MirroringAudioTrackCache getCache() {
+		return this.cache;
+	}
+
+	@Nullable
+	public MirroringAudioTrackIndex getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Sets the persistent index which is consulted for tracks with an ISRC before any provider is queried.
+	 */
+	public void setIndex(@Nullable MirroringAudioTrackIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Sets how many providers are queried at the same time. A value of 1 disables racing and queries the providers one after another.
+	 */
+	public void setRaceProviders(int raceProviders) {
+		this.raceProviders = Math.max(1, raceProviders);
+	}
+
+	/**
+	 * Sets how long in milliseconds a higher priority provider may still answer after a lower priority one already found a track.
+	 */
+	public void setRaceGracePeriod(long raceGracePeriod) {
+		this.raceGracePeriod = Math.max(0, raceGracePeriod);
 	}
 
 	@Override
 	public AudioItem apply(MirroringAudioTrack mirroringAudioTrack) {
-		for (var provider : providers) {
+		String cacheKey = this.cache == null ? null : MirroringAudioTrackCache.getKey(mirroringAudioTrack.getInfo());
+		if (cacheKey != null) {
+			var cached = this.cache.get(cacheKey);
+			if (cached != null) {
+				log.debug("Using cached mirror for \"{}\"", cacheKey);
+				return cached;
+			}
+		}
+
+		var isrc = mirroringAudioTrack.getInfo().isrc;
+		var manager = ((MirroringAudioSourceManager) mirroringAudioTrack.getSourceManager()).getAudioPlayerManager();
+		var useIndex = this.index != null && isrc != null && !isrc.isEmpty();
+		if (useIndex) {
+			var indexed = this.index.get(isrc, manager);
+			if (indexed != null) {
+				log.debug("Using indexed mirror for ISRC \"{}\"", isrc);
+				if (cacheKey != null) {
+					this.cache.put(cacheKey, indexed);
+				}
+				return indexed;
+			}
+		}
+
+		var queries = this.buildQueries(mirroringAudioTrack);
+		var result = new Result();
+		for (var i = 0; i < queries.size() && result.item == null; i += this.raceProviders) {
+			var batch = queries.subList(i, Math.min(i + this.raceProviders, queries.size()));
+			if (batch.size() == 1) {
+				this.load(mirroringAudioTrack, batch.get(0), result);
+			} else {
+				this.race(mirroringAudioTrack, batch, result);
+			}
+		}
+
+		if (result.item != null) {
+			if (cacheKey != null) {
+				this.cache.put(cacheKey, result.item);
+			}
+			if (useIndex) {
+				var track = result.item instanceof AudioPlaylist ? ((AudioPlaylist) result.item).getTracks().get(0) : result.item;
+				if (track instanceof AudioTrack) {
+					this.index.put(isrc, (AudioTrack) track, manager);
+				}
+			}
+			return result.item;
+		}
+
+		// don't remember misses which might have been caused by a provider error
+		if (cacheKey != null && !result.failed) {
+			this.cache.put(cacheKey, AudioReference.NO_TRACK);
+		}
+		return AudioReference.NO_TRACK;
+	}
+
+	private List<String> buildQueries(MirroringAudioTrack mirroringAudioTrack) {
+		var queries = new ArrayList<String>(this.providers.length);
+		for (var provider : this.providers) {
 			if (provider.startsWith(SpotifySourceManager.SEARCH_PREFIX)) {
 				log.warn("Can not use spotify search as search provider!");
 				continue;
@@ -45,23 +153,73 @@ public class DefaultMirroringAudioTrackResolver implements MirroringAudioTrackRe
 				}
 			}
 
-			provider = provider.replace(MirroringAudioSourceManager.QUERY_PATTERN, getTrackTitle(mirroringAudioTrack));
+			queries.add(provider.replace(MirroringAudioSourceManager.QUERY_PATTERN, getTrackTitle(mirroringAudioTrack)));
+		}
+		return queries;
+	}
 
-			AudioItem item;
-			try {
-				item = mirroringAudioTrack.loadItem(provider);
-			} catch (Exception e) {
-				log.error("Failed to load track from provider \"{}\"!", provider, e);
-				continue;
-			}
-			// If the track is an empty playlist, skip the provider
-			if (item instanceof AudioPlaylist && ((AudioPlaylist) item).getTracks().isEmpty() || item == AudioReference.NO_TRACK) {
-				continue;
+	private void load(MirroringAudioTrack mirroringAudioTrack, String query, Result result) {
+		AudioItem item;
+		try {
+			item = mirroringAudioTrack.loadItem(query);
+		} catch (Exception e) {
+			log.error("Failed to load track from provider \"{}\"!", query, e);
+			result.failed = true;
+			return;
+		}
+		if (isFound(item)) {
+			result.item = item;
+		}
+	}
+
+	private void race(MirroringAudioTrack mirroringAudioTrack, List<String> queries, Result result) {
+		var futures = new ArrayList<CompletableFuture<AudioItem>>(queries.size());
+		var anyFound = new CompletableFuture<Void>();
+		for (var query : queries) {
+			var future = mirroringAudioTrack.loadItemAsync(query);
+			future.whenComplete((item, e) -> {
+				if (e == null && isFound(item)) {
+					anyFound.complete(null);
+				}
+			});
+			futures.add(future);
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((unused, e) -> anyFound.complete(null));
+
+		try {
+			anyFound.join();
+
+			// the first provider which found something decides the grace period for all providers with a higher priority
+			var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.raceGracePeriod);
+			for (var i = 0; i < futures.size(); i++) {
+				var future = futures.get(i);
+				AudioItem item;
+				try {
+					item = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				} catch (TimeoutException e) {
+					log.debug("Provider \"{}\" did not answer within the grace period", queries.get(i));
+					continue;
+				} catch (ExecutionException e) {
+					log.error("Failed to load track from provider \"{}\"!", queries.get(i), e.getCause());
+					result.failed = true;
+					continue;
+				}
+				if (isFound(item)) {
+					result.item = item;
+					return;
+				}
 			}
-			return item;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			result.failed = true;
+		} finally {
+			futures.forEach(future -> future.cancel(true));
 		}
+	}
 
-		return AudioReference.NO_TRACK;
+	private static boolean isFound(AudioItem item) {
+		// If the track is an empty playlist, skip the provider
+		return item != null && item != AudioReference.NO_TRACK && !(item instanceof AudioPlaylist && ((AudioPlaylist) item).getTracks().isEmpty());
 	}
 
 	public String getTrackTitle(MirroringAudioTrack mirroringAudioTrack) {
@@ -72,4 +230,10 @@ public class DefaultMirroringAudioTrackResolver implements MirroringAudioTrackRe
 		return query;
 	}
 
+	private static class Result {
+		@Nullable
+		private AudioItem item;
+		private boolean failed;
+	}
+
 }
@@ -6,8 +6,10 @@ import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpConfigurable;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterfaceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +26,8 @@ public abstract class MirroringAudioSourceManager extends ExtendedAudioSourceMan
 	protected final MirroringAudioTrackResolver resolver;
 
 	protected final HttpInterfaceManager httpInterfaceManager = HttpClientTools.createDefaultThreadLocalManager();
+	@Nullable
+	protected MirroringAudioTrackPreloader preloader;
 
 	protected MirroringAudioSourceManager(AudioPlayerManager audioPlayerManager, MirroringAudioTrackResolver resolver) {
 		this(unused -> audioPlayerManager, resolver);
@@ -65,4 +69,31 @@ public abstract class MirroringAudioSourceManager extends ExtendedAudioSourceMan
 		return this.resolver;
 	}
 
+	@Nullable
+	public MirroringAudioTrackPreloader getPreloader() {
+		return this.preloader;
+	}
+
+	public void setPreloader(@Nullable MirroringAudioTrackPreloader preloader) {
+		this.preloader = preloader;
+	}
+
+	public AudioItem resolve(MirroringAudioTrack track) {
+		if (this.preloader != null) {
+			this.preloader.preloadNext(track);
+			var item = this.preloader.get(track);
+			if (item != null) {
+				return item;
+			}
+		}
+		return this.resolver.apply(track);
+	}
+
+	protected AudioItem preload(AudioItem item) {
+		if (this.preloader != null) {
+			this.preloader.preload(item);
+		}
+		return item;
+	}
+
 }
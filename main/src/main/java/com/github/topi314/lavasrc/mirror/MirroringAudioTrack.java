@@ -40,7 +40,7 @@ public abstract class MirroringAudioTrack extends ExtendedAudioTrack {
 			}
 			return;
 		}
-		var track = this.sourceManager.getResolver().apply(this);
+		var track = this.sourceManager.resolve(this);
 
 		if (track instanceof AudioPlaylist) {
 			var tracks = ((AudioPlaylist) track).getTracks();
@@ -65,8 +65,15 @@ public abstract class MirroringAudioTrack extends ExtendedAudioTrack {
 	}
 
 	public AudioItem loadItem(String query) {
+		return this.loadItemAsync(query).join();
+	}
+
+	/**
+	 * Loads the given query without blocking. Cancelling the returned future also cancels the underlying load.
+	 */
+	public CompletableFuture<AudioItem> loadItemAsync(String query) {
 		var cf = new CompletableFuture<AudioItem>();
-		this.sourceManager.getAudioPlayerManager().loadItem(query, new AudioLoadResultHandler() {
+		var future = this.sourceManager.getAudioPlayerManager().loadItem(query, new AudioLoadResultHandler() {
 
 			@Override
 			public void trackLoaded(AudioTrack track) {
@@ -92,7 +99,12 @@ public abstract class MirroringAudioTrack extends ExtendedAudioTrack {
 				cf.completeExceptionally(exception);
 			}
 		});
-		return cf.join();
+		cf.whenComplete((item, e) -> {
+			if (cf.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		return cf;
 	}
 
 }
@@ -0,0 +1,132 @@
+package com.github.topi314.lavasrc.mirror;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache which remembers which track a mirror was resolved to.
+ * Tracks are keyed by their ISRC, or by their normalized title and author if they do not have one.
+ * Failed resolutions are cached as {@link AudioReference#NO_TRACK} for a shorter amount of time.
+ */
+public class MirroringAudioTrackCache {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	public static final Duration DEFAULT_TTL = Duration.ofHours(6);
+	public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofMinutes(10);
+
+	private final Map<String, Entry> entries;
+	private final long ttl;
+	private final long negativeTtl;
+
+	public MirroringAudioTrackCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_TTL, DEFAULT_NEGATIVE_TTL);
+	}
+
+	public MirroringAudioTrackCache(int maxSize, Duration ttl, Duration negativeTtl) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Max size must be greater than 0");
+		}
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return this.size() > maxSize;
+			}
+		};
+		this.ttl = ttl.toMillis();
+		this.negativeTtl = negativeTtl.toMillis();
+	}
+
+	@Nullable
+	public static String getKey(AudioTrackInfo trackInfo) {
+		if (trackInfo.isrc != null && !trackInfo.isrc.isEmpty()) {
+			return "isrc:" + trackInfo.isrc.replace("-", "").toUpperCase(Locale.ROOT);
+		}
+		if (trackInfo.title == null || trackInfo.title.isBlank()) {
+			return null;
+		}
+		var query = trackInfo.title;
+		if (trackInfo.author != null && !trackInfo.author.equals("unknown")) {
+			query += " " + trackInfo.author;
+		}
+		return "query:" + query.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * @return a fresh clone of the cached track, {@link AudioReference#NO_TRACK} for a cached miss or null if nothing is cached
+	 */
+	@Nullable
+	public AudioItem get(String key) {
+		AudioTrack track;
+		synchronized (this.entries) {
+			var entry = this.entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt < System.currentTimeMillis()) {
+				this.entries.remove(key);
+				return null;
+			}
+			if (entry.track == null) {
+				return AudioReference.NO_TRACK;
+			}
+			track = entry.track;
+		}
+		return track.makeClone();
+	}
+
+	public void put(String key, AudioItem item) {
+		AudioTrack track = null;
+		if (item instanceof AudioPlaylist) {
+			var tracks = ((AudioPlaylist) item).getTracks();
+			if (!tracks.isEmpty()) {
+				track = tracks.get(0).makeClone();
+			}
+		} else if (item instanceof AudioTrack) {
+			track = ((AudioTrack) item).makeClone();
+		}
+
+		var entry = new Entry(track, System.currentTimeMillis() + (track == null ? this.negativeTtl : this.ttl));
+		synchronized (this.entries) {
+			this.entries.put(key, entry);
+		}
+	}
+
+	public void invalidate(String key) {
+		synchronized (this.entries) {
+			this.entries.remove(key);
+		}
+	}
+
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	private static class Entry {
+		@Nullable
+		private final AudioTrack track;
+		private final long expiresAt;
+
+		private Entry(@Nullable AudioTrack track, long expiresAt) {
+			this.track = track;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
@@ -0,0 +1,587 @@
+package com.github.topi314.lavasrc.mirror;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent index which maps ISRCs to the track they were mirrored to.
+ * <p>
+ * Records are appended to a memory-mapped log file which is split into fixed size segments. A record never spans two segments.
+ * The log is indexed by an off-heap open-addressing hash table which stores the 64-bit hash of the ISRC and the offset of its latest record.
+ * The table is rebuilt from the log on startup, and the log is compacted in the background once most of it consists of overwritten records,
+ * or once the table is full and some records are older than the max age.
+ * <p>
+ * Lookups never block on loading or compaction, they are skipped instead. Inserts are queued and written by the single index thread.
+ */
+public class MirroringAudioTrackIndex implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(MirroringAudioTrackIndex.class);
+
+	private static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+	// record length + crc32 of the record
+	private static final int HEADER_SIZE = Integer.BYTES * 2;
+	// isrc hash + record offset
+	private static final int SLOT_SIZE = Long.BYTES * 2;
+	private static final int MIN_SLOTS = 1 << 16;
+	private static final int MAX_SLOTS = 1 << 26;
+	// the table can't grow any further, only existing entries are updated after this
+	private static final int MAX_ENTRIES = MAX_SLOTS / 4 * 3;
+	private static final String FILE_PREFIX = "mirror-index.";
+	private static final String FILE_SUFFIX = ".dat";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private final Path directory;
+	private final long maxAge;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("mirror-index"));
+
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	private FileChannel channel;
+	private long generation;
+	private long writePosition;
+
+	private ByteBuffer table;
+	private int slots;
+	private int size;
+	private long liveBytes;
+	private long garbageBytes;
+	// creation time of the oldest record which might still be live
+	private long oldestCreatedAt = Long.MAX_VALUE;
+	private volatile boolean ready;
+
+	public MirroringAudioTrackIndex(Path directory) {
+		this(directory, Duration.ofDays(30));
+	}
+
+	/**
+	 * @param directory the directory the index is stored in
+	 * @param maxAge    how long an indexed track is used before it is resolved again
+	 */
+	public MirroringAudioTrackIndex(Path directory, Duration maxAge) {
+		this.directory = directory;
+		this.maxAge = maxAge.toMillis();
+		this.executor.execute(this::load);
+		this.executor.scheduleWithFixedDelay(this::compactIfNeeded, 10, 10, TimeUnit.MINUTES);
+	}
+
+	@Nullable
+	public AudioTrack get(String isrc, AudioPlayerManager manager) {
+		var key = normalize(isrc);
+		if (!this.ready || !this.lock.readLock().tryLock()) {
+			return null;
+		}
+
+		Record record;
+		try {
+			// closed or failed while waiting for the lock, the segments are gone
+			if (!this.ready) {
+				return null;
+			}
+			var offset = this.tableGet(hash(key));
+			if (offset < 0) {
+				return null;
+			}
+			record = this.readRecord(offset);
+		} catch (IOException e) {
+			log.error("Failed to read mirror index record for ISRC {}", key, e);
+			return null;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		if (!record.isrc.equals(key) || record.createdAt + this.maxAge < System.currentTimeMillis()) {
+			return null;
+		}
+
+		try {
+			var holder = manager.decodeTrack(new MessageInput(new ByteArrayInputStream(record.track)));
+			return holder == null ? null : holder.decodedTrack;
+		} catch (Exception e) {
+			log.debug("Failed to decode indexed mirror {} for ISRC {}", record.identifier, key, e);
+			return null;
+		}
+	}
+
+	public void put(String isrc, AudioTrack track, AudioPlayerManager manager) {
+		var key = normalize(isrc);
+		byte[] payload;
+		try {
+			var encodedTrack = new ByteArrayOutputStream();
+			manager.encodeTrack(new MessageOutput(encodedTrack), track);
+
+			var bytes = new ByteArrayOutputStream();
+			var output = new DataOutputStream(bytes);
+			output.writeUTF(key);
+			output.writeLong(System.currentTimeMillis());
+			output.writeUTF(track.getIdentifier());
+			output.writeInt(encodedTrack.size());
+			encodedTrack.writeTo(output);
+			output.flush();
+			payload = bytes.toByteArray();
+		} catch (Exception e) {
+			log.debug("Failed to encode mirror {} for ISRC {}", track.getIdentifier(), key, e);
+			return;
+		}
+
+		if (HEADER_SIZE + payload.length > SEGMENT_SIZE) {
+			return;
+		}
+		try {
+			this.executor.execute(() -> this.write(key, payload));
+		} catch (RejectedExecutionException e) {
+			log.debug("Mirror index is closed, dropping mirror {} for ISRC {}", track.getIdentifier(), key);
+		}
+	}
+
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.size;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		return this.ready;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// let queued inserts finish, scheduled compactions are dropped on shutdown
+		this.executor.shutdown();
+		try {
+			if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+				log.warn("Timed out waiting for mirror index writes to finish");
+				this.executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			this.executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		this.lock.writeLock().lock();
+		try {
+			this.ready = false;
+			for (var segment : this.segments) {
+				segment.force();
+			}
+			this.segments.clear();
+			if (this.channel != null) {
+				this.channel.close();
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private void load() {
+		this.lock.writeLock().lock();
+		try {
+			Files.createDirectories(this.directory);
+
+			// pick the latest generation and remove everything left behind by earlier compactions
+			var files = new ArrayList<Path>();
+			try (var stream = Files.list(this.directory)) {
+				stream.filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX)).forEach(files::add);
+			}
+			for (var file : files) {
+				var name = file.getFileName().toString();
+				if (name.endsWith(FILE_SUFFIX)) {
+					this.generation = Math.max(this.generation, parseGeneration(name));
+				}
+			}
+			for (var file : files) {
+				var name = file.getFileName().toString();
+				if (name.endsWith(TEMP_FILE_SUFFIX) || (name.endsWith(FILE_SUFFIX) && parseGeneration(name) != this.generation)) {
+					Files.deleteIfExists(file);
+				}
+			}
+
+			this.channel = FileChannel.open(this.getFile(this.generation), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.table = allocateTable(MIN_SLOTS);
+			this.slots = MIN_SLOTS;
+			this.scan();
+			this.ready = true;
+			log.info("Loaded mirror index with {} entries", this.size);
+		} catch (Exception e) {
+			log.error("Failed to load mirror index from {}", this.directory, e);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private void scan() throws IOException {
+		var fileSize = this.channel.size();
+		var segmentCount = (int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+		for (var i = 0; i < segmentCount; i++) {
+			this.segment((long) i * SEGMENT_SIZE);
+		}
+
+		long position = 0;
+		var end = (long) segmentCount * SEGMENT_SIZE;
+		while (position < end) {
+			var segment = this.segments.get((int) (position / SEGMENT_SIZE));
+			var offset = (int) (position % SEGMENT_SIZE);
+			if (SEGMENT_SIZE - offset < HEADER_SIZE) {
+				position += SEGMENT_SIZE - offset;
+				continue;
+			}
+			var length = segment.getInt(offset);
+			if (length == 0) {
+				// rest of the segment is unused
+				position += SEGMENT_SIZE - offset;
+				continue;
+			}
+			if (length < 0 || length > SEGMENT_SIZE - offset - HEADER_SIZE || segment.getInt(offset + Integer.BYTES) != crc(segment, offset + HEADER_SIZE, length)) {
+				log.warn("Mirror index is corrupted at offset {}, discarding everything after it", position);
+				this.discardFrom(position);
+				return;
+			}
+
+			var isrc = this.readIsrc(segment, offset + HEADER_SIZE);
+			this.oldestCreatedAt = Math.min(this.oldestCreatedAt, this.readCreatedAt(segment, offset));
+			this.index(hash(isrc), position, HEADER_SIZE + length);
+			position += HEADER_SIZE + length;
+			this.writePosition = position;
+		}
+	}
+
+	private void discardFrom(long position) {
+		for (var index = (int) (position / SEGMENT_SIZE); index < this.segments.size(); index++) {
+			var segment = this.segments.get(index);
+			var start = index == position / SEGMENT_SIZE ? (int) (position % SEGMENT_SIZE) : 0;
+			for (var i = start; i < SEGMENT_SIZE; i++) {
+				segment.put(i, (byte) 0);
+			}
+		}
+		this.writePosition = position;
+	}
+
+	private void write(String key, byte[] payload) {
+		if (!this.ready) {
+			return;
+		}
+		var hash = hash(key);
+		this.lock.writeLock().lock();
+		try {
+			if (this.size >= MAX_ENTRIES && this.tableGet(hash) < 0) {
+				// make room by dropping expired records, otherwise only existing entries can be updated
+				if (this.hasExpired()) {
+					this.compact();
+				}
+				if (this.size >= MAX_ENTRIES) {
+					return;
+				}
+			}
+			this.append(hash, payload);
+		} catch (IOException e) {
+			log.error("Failed to write mirror index record for ISRC {}", key, e);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private void append(long hash, byte[] payload) throws IOException {
+		var recordSize = HEADER_SIZE + payload.length;
+		var offset = (int) (this.writePosition % SEGMENT_SIZE);
+		if (SEGMENT_SIZE - offset < recordSize) {
+			// mark the rest of the segment as unused and continue in the next one
+			if (SEGMENT_SIZE - offset >= Integer.BYTES) {
+				this.segment(this.writePosition).putInt(offset, 0);
+			}
+			this.writePosition += SEGMENT_SIZE - offset;
+			offset = 0;
+		}
+
+		var segment = this.segment(this.writePosition);
+		var buffer = segment.duplicate();
+		buffer.position(offset + HEADER_SIZE);
+		buffer.put(payload);
+		var crc = new CRC32();
+		crc.update(payload);
+		segment.putInt(offset + Integer.BYTES, (int) crc.getValue());
+		// the length is written last, so a record is only visible once it is complete
+		segment.putInt(offset, payload.length);
+
+		this.oldestCreatedAt = Math.min(this.oldestCreatedAt, this.readCreatedAt(segment, offset));
+		this.index(hash, this.writePosition, recordSize);
+		this.writePosition += recordSize;
+	}
+
+	private void index(long hash, long position, int recordSize) {
+		var previous = this.tablePut(hash, position);
+		if (previous >= 0) {
+			var previousSize = HEADER_SIZE + this.segments.get((int) (previous / SEGMENT_SIZE)).getInt((int) (previous % SEGMENT_SIZE));
+			this.liveBytes -= previousSize;
+			this.garbageBytes += previousSize;
+		}
+		this.liveBytes += recordSize;
+	}
+
+	private void compactIfNeeded() {
+		if (!this.ready) {
+			return;
+		}
+		var mostlyGarbage = this.garbageBytes >= SEGMENT_SIZE && this.garbageBytes >= this.liveBytes;
+		if (!mostlyGarbage && !(this.size >= MAX_ENTRIES && this.hasExpired())) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			this.compact();
+		} catch (Exception e) {
+			log.error("Failed to compact mirror index", e);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	private boolean hasExpired() {
+		return this.oldestCreatedAt + this.maxAge < System.currentTimeMillis();
+	}
+
+	private void compact() throws IOException {
+		var start = System.currentTimeMillis();
+		var newGeneration = this.generation + 1;
+		var tempFile = this.directory.resolve(FILE_PREFIX + newGeneration + TEMP_FILE_SUFFIX);
+		var newTable = allocateTable(this.slots);
+		var newSize = 0;
+		var oldestCreatedAt = Long.MAX_VALUE;
+		long position = 0;
+
+		try (var output = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (var i = 0; i < this.slots; i++) {
+				var hash = this.table.getLong(i * SLOT_SIZE);
+				if (hash == 0) {
+					continue;
+				}
+				var offset = this.table.getLong(i * SLOT_SIZE + Long.BYTES);
+				var segment = this.segments.get((int) (offset / SEGMENT_SIZE)).duplicate();
+				var segmentOffset = (int) (offset % SEGMENT_SIZE);
+				var recordSize = HEADER_SIZE + segment.getInt(segmentOffset);
+				var createdAt = this.readCreatedAt(segment, segmentOffset);
+				if (createdAt + this.maxAge < start) {
+					// expired records are never returned, so drop them instead of carrying them over
+					continue;
+				}
+				oldestCreatedAt = Math.min(oldestCreatedAt, createdAt);
+
+				if (SEGMENT_SIZE - position % SEGMENT_SIZE < recordSize) {
+					// skipped bytes are zero, which marks the rest of the segment as unused
+					position += SEGMENT_SIZE - position % SEGMENT_SIZE;
+				}
+				segment.position(segmentOffset);
+				segment.limit(segmentOffset + recordSize);
+				while (segment.hasRemaining()) {
+					output.write(segment, position + segment.position() - segmentOffset);
+				}
+				tablePut(newTable, this.slots, hash, position);
+				newSize++;
+				position += recordSize;
+			}
+			output.force(true);
+		}
+
+		var newFile = this.getFile(newGeneration);
+		Files.move(tempFile, newFile, StandardCopyOption.ATOMIC_MOVE);
+
+		var oldFile = this.getFile(this.generation);
+		// stays unusable if the new file can't be mapped
+		this.ready = false;
+		this.segments.clear();
+		this.channel.close();
+
+		this.channel = FileChannel.open(newFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.generation = newGeneration;
+		this.table = newTable;
+		this.size = newSize;
+		this.oldestCreatedAt = oldestCreatedAt;
+		this.writePosition = position;
+		this.liveBytes = position;
+		this.garbageBytes = 0;
+		var segmentCount = (int) ((position + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+		for (var i = 0; i < Math.max(segmentCount, 1); i++) {
+			this.segment((long) i * SEGMENT_SIZE);
+		}
+		this.ready = true;
+
+		try {
+			Files.deleteIfExists(oldFile);
+		} catch (IOException e) {
+			// it will be removed on the next start
+			log.debug("Failed to delete old mirror index file {}", oldFile, e);
+		}
+		log.info("Compacted mirror index with {} entries in {}ms", this.size, System.currentTimeMillis() - start);
+	}
+
+	private MappedByteBuffer segment(long position) throws IOException {
+		var index = (int) (position / SEGMENT_SIZE);
+		while (this.segments.size() <= index) {
+			this.segments.add(this.channel.map(FileChannel.MapMode.READ_WRITE, (long) this.segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+		}
+		return this.segments.get(index);
+	}
+
+	private Record readRecord(long position) throws IOException {
+		var segment = this.segments.get((int) (position / SEGMENT_SIZE)).duplicate();
+		var offset = (int) (position % SEGMENT_SIZE);
+		var bytes = new byte[segment.getInt(offset)];
+		segment.position(offset + HEADER_SIZE);
+		segment.get(bytes);
+
+		var input = new DataInputStream(new ByteArrayInputStream(bytes));
+		var isrc = input.readUTF();
+		var createdAt = input.readLong();
+		var identifier = input.readUTF();
+		var track = new byte[input.readInt()];
+		input.readFully(track);
+		return new Record(isrc, createdAt, identifier, track);
+	}
+
+	private long readCreatedAt(ByteBuffer segment, int offset) {
+		// the creation time follows the isrc, which is written with a 2 byte length prefix
+		var isrcLength = segment.getShort(offset + HEADER_SIZE) & 0xFFFF;
+		return segment.getLong(offset + HEADER_SIZE + Short.BYTES + isrcLength);
+	}
+
+	private String readIsrc(MappedByteBuffer segment, int offset) {
+		var length = segment.getShort(offset) & 0xFFFF;
+		var bytes = new byte[length];
+		var buffer = segment.duplicate();
+		buffer.position(offset + Short.BYTES);
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long tableGet(long hash) {
+		var mask = this.slots - 1;
+		for (var i = (int) (hash ^ (hash >>> 32)) & mask; ; i = (i + 1) & mask) {
+			var slotHash = this.table.getLong(i * SLOT_SIZE);
+			if (slotHash == 0) {
+				return -1;
+			}
+			if (slotHash == hash) {
+				return this.table.getLong(i * SLOT_SIZE + Long.BYTES);
+			}
+		}
+	}
+
+	private long tablePut(long hash, long offset) {
+		if ((this.size + 1) * 2L > this.slots && this.slots < MAX_SLOTS) {
+			var newSlots = this.slots * 2;
+			var newTable = allocateTable(newSlots);
+			for (var i = 0; i < this.slots; i++) {
+				var slotHash = this.table.getLong(i * SLOT_SIZE);
+				if (slotHash != 0) {
+					tablePut(newTable, newSlots, slotHash, this.table.getLong(i * SLOT_SIZE + Long.BYTES));
+				}
+			}
+			this.table = newTable;
+			this.slots = newSlots;
+		}
+		var previous = tablePut(this.table, this.slots, hash, offset);
+		if (previous < 0) {
+			this.size++;
+		}
+		return previous;
+	}
+
+	private static long tablePut(ByteBuffer table, int slots, long hash, long offset) {
+		var mask = slots - 1;
+		for (var i = (int) (hash ^ (hash >>> 32)) & mask; ; i = (i + 1) & mask) {
+			var slotHash = table.getLong(i * SLOT_SIZE);
+			if (slotHash == 0 || slotHash == hash) {
+				var previous = slotHash == 0 ? -1 : table.getLong(i * SLOT_SIZE + Long.BYTES);
+				table.putLong(i * SLOT_SIZE, hash);
+				table.putLong(i * SLOT_SIZE + Long.BYTES, offset);
+				return previous;
+			}
+		}
+	}
+
+	private static ByteBuffer allocateTable(int slots) {
+		return ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+	}
+
+	private static int crc(MappedByteBuffer segment, int offset, int length) {
+		var buffer = segment.duplicate();
+		buffer.position(offset);
+		buffer.limit(offset + length);
+		var crc = new CRC32();
+		crc.update(buffer);
+		return (int) crc.getValue();
+	}
+
+	private Path getFile(long generation) {
+		return this.directory.resolve(FILE_PREFIX + generation + FILE_SUFFIX);
+	}
+
+	private static long parseGeneration(String fileName) {
+		try {
+			return Long.parseLong(fileName.substring(FILE_PREFIX.length(), fileName.lastIndexOf('.')));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static String normalize(String isrc) {
+		return isrc.replace("-", "").toUpperCase(Locale.ROOT);
+	}
+
+	private static long hash(String isrc) {
+		// FNV-1a followed by the murmur3 finalizer, 0 marks an empty slot
+		var hash = 0xcbf29ce484222325L;
+		for (var i = 0; i < isrc.length(); i++) {
+			hash ^= isrc.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash == 0 ? 1 : hash;
+	}
+
+	private static class Record {
+		private final String isrc;
+		private final long createdAt;
+		private final String identifier;
+		private final byte[] track;
+
+		private Record(String isrc, long createdAt, String identifier, byte[] track) {
+			this.isrc = isrc;
+			this.createdAt = createdAt;
+			this.identifier = identifier;
+			this.track = track;
+		}
+	}
+
+}
@@ -0,0 +1,267 @@
+package com.github.topi314.lavasrc.mirror;
+
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves mirrors of upcoming tracks in the background, so {@link MirroringAudioTrack#process} does not have to wait for the resolver.
+ * The order of loaded playlists is remembered, and whenever a track of one starts playing the tracks after it are preloaded.
+ * Every preloaded result is handed out once and afterwards forgotten.
+ */
+public class MirroringAudioTrackPreloader {
+
+	private static final Logger log = LoggerFactory.getLogger(MirroringAudioTrackPreloader.class);
+
+	// how many tracks of recently loaded playlists are remembered to find the tracks after the playing one
+	private static final int MAX_POSITIONS = 100_000;
+
+	private final ThreadPoolExecutor executor;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<String, Position> positions = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Position> eldest) {
+			return this.size() > MAX_POSITIONS;
+		}
+	};
+	private final int maxEntries;
+	private final long ttl;
+	private final long permitInterval;
+	private long nextPermit;
+	private int playlistLimit = 10;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public MirroringAudioTrackPreloader() {
+		this(2, 1000, Duration.ofMinutes(10), 5);
+	}
+
+	/**
+	 * @param threads              the number of threads resolving mirrors in the background
+	 * @param maxEntries           the max amount of preloaded and queued tracks
+	 * @param ttl                  how long a preloaded track is kept
+	 * @param resolutionsPerSecond how many background resolutions may be started per second, 0 for no limit
+	 */
+	public MirroringAudioTrackPreloader(int threads, int maxEntries, Duration ttl, double resolutionsPerSecond) {
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxEntries), new DaemonThreadFactory("mirror-preloader"));
+		this.executor.allowCoreThreadTimeOut(true);
+		this.maxEntries = maxEntries;
+		this.ttl = ttl.toMillis();
+		this.permitInterval = resolutionsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / resolutionsPerSecond) : 0;
+		this.nextPermit = System.nanoTime();
+	}
+
+	/**
+	 * Sets how many tracks after the playing track of a playlist are preloaded.
+	 */
+	public void setPlaylistLimit(int playlistLimit) {
+		this.playlistLimit = playlistLimit;
+	}
+
+	/**
+	 * Remembers the order of a loaded playlist and preloads its first track.
+	 * The following tracks are preloaded by {@link #preloadNext} once the tracks before them are played.
+	 */
+	public void preload(AudioItem item) {
+		if (!(item instanceof AudioPlaylist) || ((AudioPlaylist) item).isSearchResult()) {
+			return;
+		}
+		var tracks = ((AudioPlaylist) item).getTracks();
+		synchronized (this.positions) {
+			for (var i = 0; i < tracks.size(); i++) {
+				var track = tracks.get(i);
+				if (track instanceof MirroringAudioTrack) {
+					this.positions.put(getKey((MirroringAudioTrack) track), new Position(tracks, i));
+				}
+			}
+		}
+		this.preload(tracks, 1);
+	}
+
+	/**
+	 * Preloads the tracks following the given track in the playlist it was last loaded with.
+	 */
+	public void preloadNext(MirroringAudioTrack track) {
+		Position position;
+		synchronized (this.positions) {
+			position = this.positions.get(getKey(track));
+		}
+		if (position == null || this.playlistLimit <= 0) {
+			return;
+		}
+		var next = position.index + 1;
+		this.preload(position.tracks.subList(Math.min(next, position.tracks.size()), position.tracks.size()), this.playlistLimit);
+	}
+
+	public void preload(List<AudioTrack> tracks, int limit) {
+		var count = 0;
+		for (var track : tracks) {
+			if (count >= limit) {
+				break;
+			}
+			if (track instanceof MirroringAudioTrack && !((MirroringAudioTrack) track).isPreview()) {
+				this.preload((MirroringAudioTrack) track);
+				count++;
+			}
+		}
+	}
+
+	public void preload(MirroringAudioTrack track) {
+		this.removeExpired();
+		if (this.entries.size() >= this.maxEntries) {
+			return;
+		}
+
+		var key = getKey(track);
+		var entry = new Entry(System.currentTimeMillis() + this.ttl);
+		if (this.entries.putIfAbsent(key, entry) != null) {
+			return;
+		}
+
+		var resolver = ((MirroringAudioSourceManager) track.getSourceManager()).getResolver();
+		try {
+			CompletableFuture.supplyAsync(() -> {
+				// the track has already been played or expired while waiting in the queue
+				if (entry.future.isDone()) {
+					return null;
+				}
+				try {
+					this.acquirePermit();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new CompletionException(e);
+				}
+				entry.started = true;
+				return resolver.apply(track);
+			}, this.executor).whenComplete((item, e) -> {
+				if (e != null) {
+					log.debug("Failed to preload mirror for track {}", key, e);
+					entry.future.completeExceptionally(e);
+					return;
+				}
+				entry.future.complete(item);
+			});
+		} catch (RejectedExecutionException e) {
+			this.entries.remove(key, entry);
+		}
+	}
+
+	/**
+	 * @return the preloaded mirror of the track or null if the track was not preloaded or could not be resolved
+	 */
+	@Nullable
+	public AudioItem get(MirroringAudioTrack track) {
+		var entry = this.entries.remove(getKey(track));
+		if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		if (!entry.started) {
+			// still queued, resolving it right away is faster
+			entry.future.cancel(false);
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		AudioItem item;
+		try {
+			// the mirror is already being resolved, waiting for it is faster than starting over
+			item = entry.future.join();
+		} catch (CancellationException | CompletionException e) {
+			item = null;
+		}
+		if (item == null || item == AudioReference.NO_TRACK) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+		this.hits.incrementAndGet();
+		return item;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public int getSize() {
+		return this.entries.size();
+	}
+
+	public void shutdown() {
+		this.executor.shutdownNow();
+		this.entries.values().forEach(entry -> entry.future.cancel(true));
+		this.entries.clear();
+		synchronized (this.positions) {
+			this.positions.clear();
+		}
+	}
+
+	private void acquirePermit() throws InterruptedException {
+		if (this.permitInterval <= 0) {
+			return;
+		}
+		long wait;
+		synchronized (this) {
+			var now = System.nanoTime();
+			var permit = now - this.nextPermit > 0 ? now : this.nextPermit;
+			this.nextPermit = permit + this.permitInterval;
+			wait = permit - now;
+		}
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	private void removeExpired() {
+		var now = System.currentTimeMillis();
+		this.entries.values().removeIf(entry -> {
+			if (entry.expiresAt >= now) {
+				return false;
+			}
+			entry.future.cancel(false);
+			return true;
+		});
+	}
+
+	private static String getKey(MirroringAudioTrack track) {
+		return track.getSourceManager().getSourceName() + ":" + track.getIdentifier();
+	}
+
+	private static class Position {
+		private final List<AudioTrack> tracks;
+		private final int index;
+
+		private Position(List<AudioTrack> tracks, int index) {
+			this.tracks = tracks;
+			this.index = index;
+		}
+	}
+
+	private static class Entry {
+		private final CompletableFuture<AudioItem> future = new CompletableFuture<>();
+		private final long expiresAt;
+		private volatile boolean started;
+
+		private Entry(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
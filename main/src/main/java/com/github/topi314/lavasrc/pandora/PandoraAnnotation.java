@@ -0,0 +1,52 @@
+package com.github.topi314.lavasrc.pandora;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * A track, album, artist, playlist or listener as annotated by the catalog API, only the fields of its type are set.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+class PandoraAnnotation {
+
+    public String pandoraId;
+    public String type;
+    public String name;
+    public String fullname;
+    public String artistName;
+    public long duration;
+    public String isrc;
+    public String albumId;
+    public String artistId;
+    public String shareableUrlPath;
+    public String slugPlusPandoraId;
+    public String listenerPandoraId;
+    public String thorLayers;
+    public Icon icon;
+    public Integer trackCount;
+    public long totalTracks;
+    public List<TrackRef> tracks = List.of();
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Icon {
+        public String artId;
+    }
+
+    /**
+     * Playlists list their tracks as objects, albums and artists only by id.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class TrackRef {
+        public String pandoraId;
+
+        TrackRef() {
+        }
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        TrackRef(String pandoraId) {
+            this.pandoraId = pandoraId;
+        }
+    }
+}
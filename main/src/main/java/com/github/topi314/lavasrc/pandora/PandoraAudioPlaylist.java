@@ -9,4 +9,9 @@ public class PandoraAudioPlaylist extends ExtendedAudioPlaylist {
 	public PandoraAudioPlaylist(String name, List<AudioTrack> tracks, ExtendedAudioPlaylist.Type type, String url, String artworkURL, String author, Integer totalTracks) {
 		super(name, tracks, type, url, artworkURL, author, totalTracks);
 	}
+
+	@Override
+	public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+		return new PandoraAudioPlaylist(this.getName(), tracks, this.type, this.url, this.artworkURL, this.author, this.totalTracks);
+	}
 }
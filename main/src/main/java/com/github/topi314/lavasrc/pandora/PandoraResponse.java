@@ -0,0 +1,64 @@
+package com.github.topi314.lavasrc.pandora;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response of the catalog and playlist APIs, e.g. getTracks of a playlist with up to 5000 tracks.
+ * Decoded straight from the response stream with only the fields we need, instead of building a tree of every annotation.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+class PandoraResponse extends PandoraAnnotation {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(PandoraResponse.class);
+    private static final ObjectReader ANNOTATIONS_READER = READER.forType(Annotations.class);
+
+    public Long errorCode;
+    public String errorString;
+    public List<String> results = List.of();
+    public Map<String, PandoraAnnotation> annotations = Map.of();
+    public TrackDetails trackDetails = new TrackDetails();
+    public ArtistDetails artistDetails = new ArtistDetails();
+
+    static PandoraResponse read(InputStream stream) throws IOException {
+        return READER.readValue(stream);
+    }
+
+    /**
+     * Reads an annotateObjects response, which maps the requested ids to their annotations.
+     */
+    static Annotations readAnnotations(InputStream stream) throws IOException {
+        return ANNOTATIONS_READER.readValue(stream);
+    }
+
+    /**
+     * The annotations keyed by id at the top level, errors are still reported in errorCode and errorString.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Annotations extends PandoraResponse {
+        final Map<String, PandoraAnnotation> byId = new HashMap<>();
+
+        @JsonAnySetter
+        void put(String id, PandoraAnnotation annotation) {
+            this.byId.put(id, annotation);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class TrackDetails {
+        public List<String> similarTracks = List.of();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class ArtistDetails {
+        public List<String> topTracks = List.of();
+    }
+}
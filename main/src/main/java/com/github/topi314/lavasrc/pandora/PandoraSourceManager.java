@@ -108,7 +108,7 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
     }
 
     @Override
-    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+    protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
         var identifier = reference.identifier;
         try {
             if (identifier.startsWith(SEARCH_PREFIX)) {
@@ -124,7 +124,7 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
                 if (trackId.isEmpty()) {
 					throw new IllegalArgumentException("No track ID provided for recommendations");
 				}
-                return this.getRecommendations(trackId);
+                return this.preload(this.getRecommendations(trackId));
             }
 
             var input = identifier.trim();
@@ -139,14 +139,14 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
             if (id.startsWith("TR")) {
                 return this.getTrack(id);
             } else if (id.startsWith("AL")) {
-                return this.getAlbum(id);
+                return this.preload(this.getAlbum(id));
             } else if (id.startsWith("AR")) {
                 if (input.contains("/artist/all-songs/")) {
-                    return this.getArtistAllSongs(id);
+                    return this.preload(this.getArtistAllSongs(id));
                 }
-                return this.getArtist(id);
+                return this.preload(this.getArtist(id));
             } else if (id.startsWith("PL:")) {
-                return this.getPlaylist(id);
+                return this.preload(this.getPlaylist(id));
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -154,11 +154,16 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
         return null;
     }
 
-    private JsonBrowser postJson(String path, String body) throws IOException {
-        return postJsonWithRetry(path, body, false);
+    private PandoraResponse post(String path, String body) throws IOException {
+        return post(path, body, PandoraResponse::read, false);
     }
-    
-    private JsonBrowser postJsonWithRetry(String path, String body, boolean isRetry) throws IOException {
+
+    private PandoraResponse.Annotations annotate(List<String> pandoraIds) throws IOException {
+        var annotations = post(ENDPOINT_ANNOTATE, buildAnnotateRequest(pandoraIds), PandoraResponse::readAnnotations, false);
+        return annotations != null ? annotations : new PandoraResponse.Annotations();
+    }
+
+    private <T extends PandoraResponse> T post(String path, String body, LavaSrcTools.ResponseReader<T> reader, boolean isRetry) throws IOException {
         var httpInterface = this.httpInterfaceManager.getInterface();
         this.tokenTracker.loadCookies(httpInterface);
         
@@ -174,32 +179,31 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
         post.setHeader("User-Agent", USER_AGENT);
         post.setEntity(new StringEntity(body, StandardCharsets.UTF_8));
         
-        var response = LavaSrcTools.fetchResponseAsJson(httpInterface, post);
+        var response = LavaSrcTools.fetchResponse(httpInterface, post, reader);
         
-        if (!isRetry && response != null && !response.get("errorCode").isNull()) {
-            var errorCode = response.get("errorCode").asLong(-1);
-            var errorString = response.get("errorString").text();
+        if (!isRetry && response != null && response.errorCode != null) {
+            long errorCode = response.errorCode;
+            var errorString = response.errorString;
             
             if (errorCode == 1001 || (errorCode == 0 && errorString != null && errorString.contains("could not be validated"))) {
                 log.debug("Auth token error detected (code: {}, message: {}), refreshing token and retrying...", errorCode, errorString);
                 this.tokenTracker.forceRefresh();
-                return postJsonWithRetry(path, body, true);
+                return post(path, body, reader, true);
             }
         }
         
         return response;
     }
 
-    private String getArtworkUrl(JsonBrowser node) {
-        JsonBrowser icon = node.get("icon");
-        if (!icon.isNull()) {
-            String artId = icon.get("artId").text();
+    private String getArtworkUrl(PandoraAnnotation node) {
+        if (node.icon != null) {
+            String artId = node.icon.artId;
             if (artId != null && !artId.isEmpty()) {
                 return "https://content-images.p-cdn.com/" + artId + "_1080W_1080H.jpg";
             }
         }
         
-        String thorLayers = node.get("thorLayers").text();
+        String thorLayers = node.thorLayers;
         if (thorLayers != null && !thorLayers.isEmpty()) {
             if (thorLayers.startsWith("_;grid")) {
                 String encodedLayers = URLEncoder.encode(thorLayers, StandardCharsets.UTF_8);
@@ -211,30 +215,28 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
         return null;
     }
 
-    private AudioTrack mapTrack(JsonBrowser track, JsonBrowser annotations) {
-        var title = track.get("name").text();
+    private AudioTrack mapTrack(PandoraAnnotation track, Map<String, PandoraAnnotation> annotations) {
+        var title = track.name;
         if (title == null || title.isEmpty()) {
             return null;
         }
-        var author = track.get("artistName").text();
+        var author = track.artistName;
         if (author == null || author.isEmpty()) author = "unknown";
-        var duration = track.get("duration").asLong(0) * 1000;
+        var duration = track.duration * 1000;
         if (duration == 0) {
 			return null;
 		}
-        var id = track.get("pandoraId").text();
-        var urlPath = track.get("shareableUrlPath").text();
-        var isrc = track.get("isrc").text();
+        var id = track.pandoraId;
+        var urlPath = track.shareableUrlPath;
+        var isrc = track.isrc;
 
-        var albumId = track.get("albumId").text();
-        var album = annotations.get(albumId);
-        var albumName = album.get("name").text();
-        var albumUrl = album.get("shareableUrlPath").text();
+        var album = annotations.get(track.albumId);
+        var albumName = album != null ? album.name : null;
+        var albumUrl = album != null ? album.shareableUrlPath : null;
 
-        var artistId = track.get("artistId").text();
-        var artist = annotations.get(artistId);
-        var artistUrl = artist.get("shareableUrlPath").text();
-        var artistArtworkUrl = getArtworkUrl(artist);
+        var artist = annotations.get(track.artistId);
+        var artistUrl = artist != null ? artist.shareableUrlPath : null;
+        var artistArtworkUrl = artist != null ? getArtworkUrl(artist) : null;
 
         String originalUrl = urlPath != null ? BASE_URL + urlPath : null;
         String artworkUrl = getArtworkUrl(track);
@@ -242,6 +244,53 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
         return new PandoraAudioTrack(info, albumName, albumUrl != null ? BASE_URL + albumUrl : null, artistUrl != null ? BASE_URL + artistUrl : null, artistArtworkUrl, null, false, this);
     }
 
+    private List<AudioTrack> mapTracks(List<String> trackIds, Map<String, PandoraAnnotation> annotations) {
+        List<AudioTrack> tracks = new ArrayList<>();
+        for (var trackId : trackIds) {
+            var t = annotations.get(trackId);
+            if (t == null) continue;
+            var at = mapTrack(t, annotations);
+            if (at != null) tracks.add(at);
+        }
+        return tracks;
+    }
+
+    /**
+     * Maps the tracks in order, annotating those which are not part of the response yet.
+     */
+    private List<AudioTrack> mapAnnotatedTracks(List<String> trackIds, Map<String, PandoraAnnotation> annotations) throws IOException {
+        Map<String, PandoraAnnotation> merged = new HashMap<>(annotations);
+
+        List<String> missing = new ArrayList<>();
+        for (var id : trackIds) {
+            if (!merged.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            var extra = annotate(missing);
+            for (var id : missing) {
+                var node = extra.byId.get(id);
+                if (node != null) {
+                    merged.put(id, node);
+                }
+            }
+        }
+
+        return mapTracks(trackIds, merged);
+    }
+
+    private static List<String> trackIds(List<PandoraAnnotation.TrackRef> refs) {
+        List<String> ids = new ArrayList<>(refs.size());
+        for (var ref : refs) {
+            if (ref != null && ref.pandoraId != null && !ref.pandoraId.isEmpty()) {
+                ids.add(ref.pandoraId);
+            }
+        }
+        return ids;
+    }
+
     private String buildAnnotateRequest(List<String> pandoraIds) {
         StringBuilder ids = new StringBuilder("{\"pandoraIds\":[");
         for (int i = 0; i < pandoraIds.size(); i++) {
@@ -254,65 +303,36 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
 
     private AudioItem getRecommendations(String trackId) throws IOException {
         String detailsBody = "{\"pandoraId\":\"" + escape(trackId) + "\"}";
-        var details = postJson(ENDPOINT_DETAILS, detailsBody);
+        var details = post(ENDPOINT_DETAILS, detailsBody);
         if (details == null) {
             return AudioReference.NO_TRACK;
         }
-        var similar = details.get("trackDetails").get("similarTracks");
-        if (similar.isNull() || similar.values().isEmpty()) return AudioReference.NO_TRACK;
-        List<String> idList = new ArrayList<>();
-        for (var v : similar.values()) {
-            idList.add(v.text());
-        }
-        var annotations = postJson(ENDPOINT_ANNOTATE, buildAnnotateRequest(idList));
-        List<AudioTrack> tracks = new ArrayList<>();
-        for (var v : similar.values()) {
-            var item = annotations.get(v.text());
-            if (item.isNull()) continue;
-            var track = mapTrack(item, annotations);
-            if (track != null) tracks.add(track);
-        }
+        var similar = details.trackDetails.similarTracks;
+        if (similar == null || similar.isEmpty()) return AudioReference.NO_TRACK;
+        var annotations = annotate(similar);
+        var tracks = mapTracks(similar, annotations.byId);
         return new PandoraAudioPlaylist("Pandora recommendations", tracks, ExtendedAudioPlaylist.Type.RECOMMENDATIONS, null, null, null, tracks.size());
     }
 
-    private ExtendedAudioPlaylist parseAlbum(JsonBrowser album, JsonBrowser annotations) {
-        var name = album.get("name").text();
-        var tracksArray = album.get("tracks");
-        List<AudioTrack> tracks = new ArrayList<>();
-        if (!tracksArray.isNull()) {
-            for (var v : tracksArray.values()) {
-                var t = annotations.get(v.text());
-                if (t.isNull()) continue;
-                var at = mapTrack(t, annotations);
-                if (at != null) tracks.add(at);
-            }
-        }
-        var url = album.get("shareableUrlPath").text();
+    private ExtendedAudioPlaylist parseAlbum(PandoraAnnotation album, Map<String, PandoraAnnotation> annotations) {
+        var name = album.name;
+        var tracks = mapTracks(trackIds(album.tracks), annotations);
+        var url = album.shareableUrlPath;
         var artworkUrl = getArtworkUrl(album);
-        Integer total = album.get("trackCount").isNull() ? tracks.size() : (int) album.get("trackCount").asLong( tracks.size());
-        return new PandoraAudioPlaylist(name, tracks, ExtendedAudioPlaylist.Type.ALBUM, url != null ? BASE_URL + url : null, artworkUrl, album.get("artistName").text(), total);
+        Integer total = album.trackCount == null ? tracks.size() : album.trackCount;
+        return new PandoraAudioPlaylist(name, tracks, ExtendedAudioPlaylist.Type.ALBUM, url != null ? BASE_URL + url : null, artworkUrl, album.artistName, total);
     }
 
-    private ExtendedAudioPlaylist parseArtist(JsonBrowser artist, JsonBrowser detailsRoot) {
-        var name = artist.get("name").text();
-        List<AudioTrack> tracks = new ArrayList<>();
-        var artistDetails = detailsRoot.get("artistDetails");
-        var top = artistDetails.get("topTracks");
-        var annotations = detailsRoot.get("annotations");
-        if (!top.isNull()) {
-            for (var v : top.values()) {
-                var t = annotations.get(v.text());
-                if (t.isNull()) continue;
-                var at = mapTrack(t, annotations);
-                if (at != null) tracks.add(at);
-            }
-        }
-        var url = artist.get("shareableUrlPath").text();
+    private ExtendedAudioPlaylist parseArtist(PandoraAnnotation artist, PandoraResponse details) {
+        var name = artist.name;
+        var top = details.artistDetails.topTracks;
+        var tracks = top == null ? new ArrayList<AudioTrack>() : mapTracks(top, details.annotations);
+        var url = artist.shareableUrlPath;
         var artworkUrl = getArtworkUrl(artist);
         return new PandoraAudioPlaylist(name + "'s Top Tracks", tracks, ExtendedAudioPlaylist.Type.ARTIST, url != null ? BASE_URL + url : null, artworkUrl, name, tracks.size());
     }
 
-    private ExtendedAudioPlaylist getPlaylist(String playlistId) throws IOException {
+    private AudioItem getPlaylist(String playlistId) throws IOException {
         var request = JsonBrowser.parse("{}");
         var reqObj = JsonBrowser.parse("{}");
         reqObj.put("pandoraId", playlistId);
@@ -324,66 +344,20 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
         reqObj.put("bypassPrivacyRules", true);
         request.put("request", reqObj);
 
-        var json = postJson(ENDPOINT_PLAYLIST_TRACKS, request.format());
-        var annotations = json.get("annotations");
-        var tracksNode = json.get("tracks");
-
-        Map<String, JsonBrowser> merged = new HashMap<>();
-        for (var v : annotations.values()) {
-            var id = v.get("pandoraId").text();
-            if (id != null && !id.isEmpty()) {
-                merged.put(id, v);
-            }
-        }
-
-        List<String> allIds = new ArrayList<>();
-        for (var t : tracksNode.values()) {
-            var id = t.get("pandoraId").text();
-            if (id != null && !id.isEmpty()) {
-                allIds.add(id);
-            }
-        }
-
-        List<String> missing = new ArrayList<>();
-        for (var id : allIds) {
-            if (!merged.containsKey(id)) {
-                missing.add(id);
-            }
-        }
-
-        if (!missing.isEmpty()) {
-            var extra = postJson(ENDPOINT_ANNOTATE, buildAnnotateRequest(missing));
-            for (var id : missing) {
-                var node = extra.get(id);
-                if (!node.isNull()) {
-                    merged.put(id, node);
-                }
-            }
-        }
-
-        List<AudioTrack> tracks = new ArrayList<>();
-        var mergedBrowser = JsonBrowser.parse("{}");
-        for (var entry : merged.entrySet()) {
-            mergedBrowser.put(entry.getKey(), entry.getValue());
-        }
+        var json = post(ENDPOINT_PLAYLIST_TRACKS, request.format());
+        if (json == null) return AudioReference.NO_TRACK;
+        var tracks = mapAnnotatedTracks(trackIds(json.tracks), json.annotations);
 
-        for (var t : tracksNode.values()) {
-            var id = t.get("pandoraId").text();
-            var ann = merged.get(id);
-            if (ann == null) continue;
-            var at = mapTrack(ann, mergedBrowser);
-            if (at != null) tracks.add(at);
-        }
-        var name = json.get("name").text();
-        var path = json.get("shareableUrlPath").text();
+        var name = json.name;
+        var path = json.shareableUrlPath;
         var artworkUrl = getArtworkUrl(json);
 
         String authorName = null;
-        var listenerId = json.get("listenerPandoraId").text();
+        var listenerId = json.listenerPandoraId;
         if (listenerId != null) {
-            var author = annotations.get(listenerId);
-            if (!author.isNull()) {
-                authorName = author.get("fullname").text();
+            var author = json.annotations.get(listenerId);
+            if (author != null) {
+                authorName = author.fullname;
             }
         }
         
@@ -392,36 +366,33 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
 
     public AudioItem getTrack(String trackId) throws IOException {
         String detailsBody = "{\"pandoraId\":\"" + escape(trackId) + "\"}";
-        var details = postJson(ENDPOINT_DETAILS, detailsBody);
+        var details = post(ENDPOINT_DETAILS, detailsBody);
         if (details == null) return AudioReference.NO_TRACK;
-        var annotations = details.get("annotations");
-        var track = findByUrlSuffix(trackId, annotations);
-        if (track.isNull()) {
+        var track = findByUrlSuffix(trackId, details.annotations);
+        if (track == null) {
             return AudioReference.NO_TRACK;
         }
-        var at = mapTrack(track, annotations);
+        var at = mapTrack(track, details.annotations);
         return at != null ? at : AudioReference.NO_TRACK;
     }
 
     public AudioItem getAlbum(String albumId) throws IOException {
         String detailsBody = "{\"pandoraId\":\"" + escape(albumId) + "\"}";
-        var details = postJson(ENDPOINT_DETAILS, detailsBody);
+        var details = post(ENDPOINT_DETAILS, detailsBody);
         if (details == null) return AudioReference.NO_TRACK;
-        var annotations = details.get("annotations");
-        var album = findByUrlSuffix(albumId, annotations);
-        if (album.isNull()) {
+        var album = findByUrlSuffix(albumId, details.annotations);
+        if (album == null) {
             return AudioReference.NO_TRACK;
         }
-        return parseAlbum(album, annotations);
+        return parseAlbum(album, details.annotations);
     }
 
     public AudioItem getArtist(String artistId) throws IOException {
         String detailsBody = "{\"pandoraId\":\"" + escape(artistId) + "\"}";
-        var details = postJson(ENDPOINT_DETAILS, detailsBody);
+        var details = post(ENDPOINT_DETAILS, detailsBody);
         if (details == null) return AudioReference.NO_TRACK;
-        var annotations = details.get("annotations");
-        var artist = findByUrlSuffix(artistId, annotations);
-        if (artist.isNull()) {
+        var artist = findByUrlSuffix(artistId, details.annotations);
+        if (artist == null) {
             return AudioReference.NO_TRACK;
         }
         return parseArtist(artist, details);
@@ -429,82 +400,41 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
 
     public AudioItem getArtistAllSongs(String artistId) throws IOException {
         String body = "{\"artistPandoraId\":\"" + escape(artistId) + "\",\"annotationLimit\":100}";
-        var json = postJson(ENDPOINT_ARTIST_ALL_TRACKS, body);
+        var json = post(ENDPOINT_ARTIST_ALL_TRACKS, body);
         if (json == null) return AudioReference.NO_TRACK;
 
-        var annotations = json.get("annotations");
-        var tracksNode = json.get("tracks");
-        if (tracksNode.isNull() || tracksNode.values().isEmpty()) return AudioReference.NO_TRACK;
-
-        Map<String, JsonBrowser> merged = new HashMap<>();
-        for (var v : annotations.values()) {
-            var pid = v.get("pandoraId").text();
-            if (pid != null && !pid.isEmpty()) {
-                merged.put(pid, v);
-            }
-        }
-
-        List<String> allTrackIds = new ArrayList<>();
-        for (var t : tracksNode.values()) {
-            var tid = t.text();
-            if (tid != null && !tid.isEmpty()) allTrackIds.add(tid);
-        }
-
-        List<String> missing = new ArrayList<>();
-        for (var tid : allTrackIds) {
-            if (!merged.containsKey(tid)) missing.add(tid);
-        }
-        if (!missing.isEmpty()) {
-            var extra = postJson(ENDPOINT_ANNOTATE, buildAnnotateRequest(missing));
-            for (var tid : missing) {
-                var node = extra.get(tid);
-                if (!node.isNull()) merged.put(tid, node);
-            }
-        }
-
-        var mergedBrowser = JsonBrowser.parse("{}");
-        for (var entry : merged.entrySet()) {
-            mergedBrowser.put(entry.getKey(), entry.getValue());
-        }
-
-        List<AudioTrack> tracks = new ArrayList<>();
-        for (var tid : allTrackIds) {
-            var ann = merged.get(tid);
-            if (ann == null) continue;
-            var at = mapTrack(ann, mergedBrowser);
-            if (at != null) tracks.add(at);
-        }
+        var allTrackIds = trackIds(json.tracks);
+        if (allTrackIds.isEmpty()) return AudioReference.NO_TRACK;
+        var tracks = mapAnnotatedTracks(allTrackIds, json.annotations);
         
-        JsonBrowser artist = findByUrlSuffix(artistId, annotations);
-        if (artist.isNull()) {
+        var artist = findByUrlSuffix(artistId, json.annotations);
+        if (artist == null) {
             String detailsBody = "{\"pandoraId\":\"" + escape(artistId) + "\"}";
-            var details = postJson(ENDPOINT_DETAILS, detailsBody);
+            var details = post(ENDPOINT_DETAILS, detailsBody);
             if (details != null) {
-                var detailsAnn = details.get("annotations");
-                var match = findByUrlSuffix(artistId, detailsAnn);
-                if (!match.isNull()) artist = match;
+                artist = findByUrlSuffix(artistId, details.annotations);
             }
         }
-        String name = artist.isNull() ? "All Songs" : (artist.get("name").safeText() + " - All Songs");
-        String path = artist.isNull() ? null : artist.get("shareableUrlPath").text();
-        String artworkUrl = artist.isNull() ? null : getArtworkUrl(artist);
-        String authorName = artist.isNull() ? null : artist.get("name").text();
+        String name = artist == null ? "All Songs" : ((artist.name == null ? "" : artist.name) + " - All Songs");
+        String path = artist == null ? null : artist.shareableUrlPath;
+        String artworkUrl = artist == null ? null : getArtworkUrl(artist);
+        String authorName = artist == null ? null : artist.name;
 
         return new PandoraAudioPlaylist(name, tracks, ExtendedAudioPlaylist.Type.ARTIST, path != null ? BASE_URL + path : null, artworkUrl, authorName, tracks.size());
     }
 
-    private JsonBrowser findByUrlSuffix(String urlTail, JsonBrowser annotations) {
+    private PandoraAnnotation findByUrlSuffix(String urlTail, Map<String, PandoraAnnotation> annotations) {
         for (var value : annotations.values()) {
-            var path = value.get("shareableUrlPath").text();
+            var path = value.shareableUrlPath;
             if (path != null && path.endsWith("/" + urlTail)) {
                 return value;
             }
-            var slug = value.get("slugPlusPandoraId").text();
+            var slug = value.slugPlusPandoraId;
             if (slug != null && (slug.endsWith(urlTail) || slug.contains(urlTail))) {
                 return value;
             }
         }
-        return JsonBrowser.NULL_BROWSER;
+        return null;
     }
 
     public AudioItem getSearch(String query) throws IOException {
@@ -519,18 +449,18 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
             .append("\"annotationRecipe\":\"CLASS_OF_2019\"")
             .append('}');
 
-        var json = postJson(ENDPOINT_SEARCH, request.toString());
+        var json = post(ENDPOINT_SEARCH, request.toString());
         if (json == null) return AudioReference.NO_TRACK;
-        var annotations = json.get("annotations");
-        var results = json.get("results");
-        if (results.isNull() || results.values().isEmpty()) return AudioReference.NO_TRACK;
+        var annotations = json.annotations;
+        var results = json.results;
+        if (results == null || results.isEmpty()) return AudioReference.NO_TRACK;
 
         List<AudioTrack> tracks = new ArrayList<>();
         int added = 0;
-        for (var v : results.values()) {
-            var item = annotations.get(v.text());
-            if (item.isNull()) continue;
-            if (!"TR".equals(item.get("type").text())) continue;
+        for (var id : results) {
+            var item = annotations.get(id);
+            if (item == null) continue;
+            if (!"TR".equals(item.type)) continue;
             var at = mapTrack(item, annotations);
             if (at != null) {
                 tracks.add(at);
@@ -569,52 +499,51 @@ public class PandoraSourceManager extends MirroringAudioSourceManager implements
             .append("\"annotationRecipe\":\"CLASS_OF_2019\"")
             .append('}');
 
-        var json = postJson(ENDPOINT_SEARCH, sb.toString());
-        if (json == null) {
+        var json = post(ENDPOINT_SEARCH, sb.toString());
+        if (json == null || json.results == null) {
             return AudioSearchResult.EMPTY;
         }
-        var annotations = json.get("annotations");
-        var results = json.get("results");
+        var annotations = json.annotations;
+        var results = json.results;
 
         var albums = new ArrayList<AudioPlaylist>();
         var artists = new ArrayList<AudioPlaylist>();
         var playlists = new ArrayList<AudioPlaylist>();
         var tracks = new ArrayList<AudioTrack>();
 
-        for (var idNode : results.values()) {
-            var id = idNode.text();
+        for (var id : results) {
             var item = annotations.get(id);
-            if (item.isNull()) continue;
-            var type = item.get("type").text();
+            if (item == null) continue;
+            var type = item.type;
             if ("TR".equals(type) && types.contains(AudioSearchResult.Type.TRACK)) {
                 var at = mapTrack(item, annotations);
                 if (at != null) tracks.add(at);
             } else if ("AL".equals(type) && types.contains(AudioSearchResult.Type.ALBUM)) {
-                var name = item.get("name").safeText();
-                var path = item.get("shareableUrlPath").text();
+                var name = item.name == null ? "" : item.name;
+                var path = item.shareableUrlPath;
                 var artwork = getArtworkUrl(item);
-                var artistName = item.get("artistName").text();
-                albums.add(new PandoraAudioPlaylist(name, java.util.Collections.emptyList(), ExtendedAudioPlaylist.Type.ALBUM, path != null ? BASE_URL + path : null, artwork, artistName, (int) item.get("trackCount").asLong(0)));
+                var artistName = item.artistName;
+                albums.add(new PandoraAudioPlaylist(name, java.util.Collections.emptyList(), ExtendedAudioPlaylist.Type.ALBUM, path != null ? BASE_URL + path : null, artwork, artistName, item.trackCount == null ? 0 : item.trackCount));
             } else if ("AR".equals(type) && types.contains(AudioSearchResult.Type.ARTIST)) {
-                var name = item.get("name").safeText() + "'s Top Tracks";
-                var path = item.get("shareableUrlPath").text();
+                var name = (item.name == null ? "" : item.name) + "'s Top Tracks";
+                var path = item.shareableUrlPath;
                 var artwork = getArtworkUrl(item);
-                var author = item.get("name").text();
+                var author = item.name;
                 artists.add(new PandoraAudioPlaylist(name, java.util.Collections.emptyList(), ExtendedAudioPlaylist.Type.ARTIST, path != null ? BASE_URL + path : null, artwork, author, null));
             } else if ("PL".equals(type) && types.contains(AudioSearchResult.Type.PLAYLIST)) {
-                var name = item.get("name").safeText();
-                var path = item.get("shareableUrlPath").text();
+                var name = item.name == null ? "" : item.name;
+                var path = item.shareableUrlPath;
                 var artwork = getArtworkUrl(item);
                 String authorName = null;
-                var listenerId = item.get("listenerPandoraId").text();
+                var listenerId = item.listenerPandoraId;
                 if (listenerId != null) {
                     var author = annotations.get(listenerId);
-                    if (!author.isNull()) {
-                        authorName = author.get("fullname").text();
+                    if (author != null) {
+                        authorName = author.fullname;
                     }
                 }
                 
-                playlists.add(new PandoraAudioPlaylist(name, java.util.Collections.emptyList(), ExtendedAudioPlaylist.Type.PLAYLIST, path != null ? BASE_URL + path : null, artwork, authorName, (int) item.get("totalTracks").asLong(0)));
+                playlists.add(new PandoraAudioPlaylist(name, java.util.Collections.emptyList(), ExtendedAudioPlaylist.Type.PLAYLIST, path != null ? BASE_URL + path : null, artwork, authorName, (int) item.totalTracks));
             }
         }
 
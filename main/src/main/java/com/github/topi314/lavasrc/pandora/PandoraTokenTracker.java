@@ -1,6 +1,7 @@
 package com.github.topi314.lavasrc.pandora;
 
 import com.github.topi314.lavasrc.LavaSrcTools;
+import com.github.topi314.lavasrc.TokenHolder;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
@@ -13,6 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 
 public class PandoraTokenTracker {
@@ -21,41 +23,28 @@ public class PandoraTokenTracker {
     private static final String BASE_URL = "https://www.pandora.com";
     private static final String ANONYMOUS_LOGIN_ENDPOINT = "/api/v1/auth/anonymousLogin";
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/133.0.0.0 Safari/537.36";
-    private static final long DEFAULT_TOKEN_REFRESH_INTERVAL = 24 * 60 * 60 * 1000;
+    private static final Duration DEFAULT_TOKEN_REFRESH_INTERVAL = Duration.ofHours(24);
     
     private final PandoraSourceManager sourceManager;
+    private final TokenHolder<AuthToken> authToken = new TokenHolder<>("Pandora", this::refreshAuthToken, value -> value.expires, Duration.ofMinutes(5));
     private volatile String csrfToken;
-    private volatile String authToken;
-    private volatile Instant expires;
     
     public PandoraTokenTracker(PandoraSourceManager sourceManager, String csrfToken) {
         this.sourceManager = sourceManager;
         this.csrfToken = csrfToken;
         if (csrfToken != null && !csrfToken.isEmpty()) {
-            try {
-                this.refreshAuthToken();
-            } catch (IOException e) {
-                log.warn("Failed to pre-fetch Pandora auth token during initialization, will fetch on first request", e);
-            }
+            // pre-fetch the auth token in the background, failures are retried on the first request
+            this.authToken.refresh();
         }
     }
     
     public void setCsrfToken(String csrfToken) {
         this.csrfToken = csrfToken;
-        this.authToken = null;
-        this.expires = null;
+        this.authToken.invalidate();
     }
     
     public String getAuthToken() throws IOException {
-        if (this.authToken == null || this.expires == null || this.expires.isBefore(Instant.now())) {
-            synchronized (this) {
-                if (this.authToken == null || this.expires == null || this.expires.isBefore(Instant.now())) {
-                    log.debug("Auth token is invalid or expired, refreshing token...");
-                    this.refreshAuthToken();
-                }
-            }
-        }
-        return this.authToken;
+        return this.authToken.get().token;
     }
     
     public void loadCookies(HttpInterface httpInterface) {
@@ -79,7 +68,7 @@ public class PandoraTokenTracker {
         cookieStore.addCookie(cookie);
     }
     
-    void refreshAuthToken() throws IOException {
+    AuthToken refreshAuthToken() throws IOException {
         if (csrfToken == null || csrfToken.isEmpty()) {
             throw new IllegalStateException("CSRF token is required to refresh auth token");
         }
@@ -104,20 +93,29 @@ public class PandoraTokenTracker {
             var errorString = json.get("errorString").text();
             throw new RuntimeException("Error while fetching auth token: " + errorCode + " - " + errorString);
         }
-        this.authToken = json.get("authToken").text();
-        if (this.authToken == null || this.authToken.isEmpty()) {
+        var authToken = json.get("authToken").text();
+        if (authToken == null || authToken.isEmpty()) {
             throw new RuntimeException("No auth token received from Pandora API");
         }
-        this.expires = Instant.now().plusSeconds(DEFAULT_TOKEN_REFRESH_INTERVAL);
         log.debug("Successfully refreshed Pandora auth token");
+        return new AuthToken(authToken, Instant.now().plus(DEFAULT_TOKEN_REFRESH_INTERVAL));
     }
     
     public String getCsrfToken() {
         return csrfToken;
     }
     
-    public synchronized void forceRefresh() {
-        this.authToken = null;
-        this.expires = null;
+    public void forceRefresh() {
+        this.authToken.invalidate();
+    }
+
+    private static class AuthToken {
+        private final String token;
+        private final Instant expires;
+
+        private AuthToken(String token, Instant expires) {
+            this.token = token;
+            this.expires = expires;
+        }
     }
 }
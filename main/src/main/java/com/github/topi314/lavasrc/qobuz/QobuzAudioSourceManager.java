@@ -83,7 +83,7 @@ public class QobuzAudioSourceManager extends ExtendedAudioSourceManager implemen
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		var identifier = reference.identifier;
 
 		try {
@@ -0,0 +1,94 @@
+package com.github.topi314.lavasrc.spotify;
+
+import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the artist fields used by {@link SpotifySourceManager}: id, name, images and external urls.
+ */
+public class SpotifyArtistCache {
+
+	public static final int DEFAULT_MAX_SIZE = 5000;
+	public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+	private final Map<String, Entry> entries;
+	private final long ttl;
+
+	public SpotifyArtistCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+	}
+
+	public SpotifyArtistCache(int maxSize, Duration ttl) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Max size must be greater than 0");
+		}
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return this.size() > maxSize;
+			}
+		};
+		this.ttl = ttl.toMillis();
+	}
+
+	@Nullable
+	public JsonBrowser get(String id) {
+		synchronized (this.entries) {
+			var entry = this.entries.get(id);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt < System.currentTimeMillis()) {
+				this.entries.remove(id);
+				return null;
+			}
+			return entry.artist;
+		}
+	}
+
+	/**
+	 * Stores the relevant fields of an artist object returned by the Spotify API.
+	 *
+	 * @return the stored artist
+	 */
+	public JsonBrowser put(JsonBrowser artistJson) {
+		var artist = JsonBrowser.newMap();
+		artist.put("id", artistJson.get("id").text());
+		artist.put("name", artistJson.get("name").text());
+		artist.put("images", artistJson.get("images"));
+		artist.put("external_urls", artistJson.get("external_urls"));
+
+		var entry = new Entry(artist, System.currentTimeMillis() + this.ttl);
+		synchronized (this.entries) {
+			this.entries.put(artistJson.get("id").text(), entry);
+		}
+		return artist;
+	}
+
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	private static class Entry {
+		private final JsonBrowser artist;
+		private final long expiresAt;
+
+		private Entry(JsonBrowser artist, long expiresAt) {
+			this.artist = artist;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
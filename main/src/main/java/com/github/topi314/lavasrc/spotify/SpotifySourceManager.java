@@ -13,9 +13,11 @@ import com.github.topi314.lavasrc.mirror.DefaultMirroringAudioTrackResolver;
 import com.github.topi314.lavasrc.mirror.MirroringAudioSourceManager;
 import com.github.topi314.lavasrc.mirror.MirroringAudioTrackResolver;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
 import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpConfigurable;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterfaceManager;
 import com.sedmelluq.discord.lavaplayer.track.*;
 import org.apache.http.client.config.RequestConfig;
@@ -32,10 +34,8 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -53,6 +53,7 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 	public static final String SHARE_URL = "https://spotify.link/";
 	public static final int PLAYLIST_MAX_PAGE_ITEMS = 100;
 	public static final int ALBUM_MAX_PAGE_ITEMS = 50;
+	public static final int ARTISTS_MAX_IDS = 50;
 	public static final String API_BASE = "https://api.spotify.com/v1/";
 	public static final String CLIENT_API_BASE = "https://spclient.wg.spotify.com/";
 	private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/134.0.6998.178 Spotify/1.2.65.255 Safari/537.36";
@@ -67,7 +68,8 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 	private boolean localFiles;
 	private boolean resolveArtistsInSearch = true;
 	private boolean preferAnonymousToken = false;
-	
+	private final SpotifyArtistCache artistCache = new SpotifyArtistCache();
+	private final ThreadPoolExecutor pageExecutor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory("spotify-pages"));
 
 	public SpotifySourceManager(String[] providers, String clientId, String clientSecret, String countryCode, AudioPlayerManager audioPlayerManager) {
 		this(clientId, clientSecret, null, countryCode, unused -> audioPlayerManager, new DefaultMirroringAudioTrackResolver(providers));
@@ -103,6 +105,7 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 		}
 		this.countryCode = countryCode;
 		this.preferAnonymousToken = preferAnonymousToken;
+		this.pageExecutor.allowCoreThreadTimeOut(true);
 	}
 
 	public void setPlaylistPageLimit(int playlistPageLimit) {
@@ -113,6 +116,20 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 		this.albumPageLimit = albumPageLimit;
 	}
 
+	/**
+	 * Sets how many playlist or album pages are fetched at the same time.
+	 */
+	public void setPageConcurrency(int pageConcurrency) {
+		pageConcurrency = Math.max(1, pageConcurrency);
+		if (pageConcurrency > this.pageExecutor.getMaximumPoolSize()) {
+			this.pageExecutor.setMaximumPoolSize(pageConcurrency);
+			this.pageExecutor.setCorePoolSize(pageConcurrency);
+		} else {
+			this.pageExecutor.setCorePoolSize(pageConcurrency);
+			this.pageExecutor.setMaximumPoolSize(pageConcurrency);
+		}
+	}
+
 	public void setLocalFiles(boolean localFiles) {
 		this.localFiles = localFiles;
 	}
@@ -238,10 +255,10 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		var identifier = reference.identifier;
 		var preview = reference.identifier.startsWith(PREVIEW_PREFIX);
-		return this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview);
+		return this.preload(this.loadItem(preview ? identifier.substring(PREVIEW_PREFIX.length()) : identifier, preview));
 	}
 
 	public AudioItem loadItem(String identifier, boolean preview) {
@@ -294,6 +311,11 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 		return null;
 	}
 
+	@Override
+	public HttpInterface getHttpInterface() {
+		return this.httpInterfaceManager.getInterface();
+	}
+
 	public JsonBrowser getJson(String uri, boolean anonymous, boolean preferAnonymous) throws IOException {
 		var request = new HttpGet(uri);
 		var accessToken = anonymous ? this.tokenTracker.getAnonymousAccessToken() : this.tokenTracker.getAccessToken(preferAnonymous);
@@ -362,15 +384,12 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 		}
 
 		if (this.resolveArtistsInSearch) {
-			var artistIds = json.get("tracks").get("items").values().stream().map(track -> track.get("artists").index(0).get("id").text()).collect(Collectors.joining(","));
-			var artistJson = this.getJson(API_BASE + "artists?ids=" + artistIds, false, false);
-			if (artistJson != null) {
-				for (var artist : artistJson.get("artists").values()) {
-					for (var track : json.get("tracks").get("items").values()) {
-						if (track.get("artists").index(0).get("id").text().equals(artist.get("id").text())) {
-							track.get("artists").index(0).put("images", artist.get("images"));
-						}
-					}
+			var artistIds = json.get("tracks").get("items").values().stream().map(track -> track.get("artists").index(0).get("id").text()).collect(Collectors.toList());
+			var artists = this.getArtists(artistIds, false);
+			for (var track : json.get("tracks").get("items").values()) {
+				var artist = artists.get(track.get("artists").index(0).get("id").text());
+				if (artist != null) {
+					track.get("artists").index(0).put("images", artist.get("images"));
 				}
 			}
 		}
@@ -423,21 +442,13 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 			return AudioReference.NO_TRACK;
 		}
 
-		var artistJson = this.getJson(API_BASE + "artists/" + json.get("artists").index(0).get("id").text(), false, this.preferAnonymousToken);
-		if (artistJson == null) {
-			artistJson = JsonBrowser.newMap();
-		}
-
-
-		var tracks = new ArrayList<AudioTrack>();
-		JsonBrowser page;
-		var offset = 0;
-		var pages = 0;
-		do {
-			page = this.getJson(API_BASE + "albums/" + id + "/tracks?limit=" + ALBUM_MAX_PAGE_ITEMS + "&offset=" + offset, false, this.preferAnonymousToken);
-			offset += ALBUM_MAX_PAGE_ITEMS;
+		var artistJson = Objects.requireNonNullElseGet(this.getArtistJson(json.get("artists").index(0).get("id").text()), JsonBrowser::newMap);
 
+		PageLoader loadPage = page -> {
 			var tracksPage = this.getJson(API_BASE + "tracks/?ids=" + page.get("items").values().stream().map(track -> track.get("id").text()).collect(Collectors.joining(",")), false, this.preferAnonymousToken);
+			if (tracksPage == null) {
+				return Collections.emptyList();
+			}
 
 			for (var track : tracksPage.get("tracks").values()) {
 				var albumJson = JsonBrowser.newMap();
@@ -449,9 +460,9 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 				track.get("artists").index(0).put("images", artistJson.get("images"));
 			}
 
-			tracks.addAll(this.parseTracks(tracksPage, preview));
-		}
-		while (page.get("next").text() != null && ++pages < this.albumPageLimit);
+			return this.parseTracks(tracksPage, preview);
+		};
+		var tracks = this.loadPages(API_BASE + "albums/" + id + "/tracks?limit=" + ALBUM_MAX_PAGE_ITEMS + "&offset=", ALBUM_MAX_PAGE_ITEMS, this.albumPageLimit, false, loadPage);
 
 		if (tracks.isEmpty()) {
 			return AudioReference.NO_TRACK;
@@ -470,14 +481,8 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 			return AudioReference.NO_TRACK;
 		}
 
-		var tracks = new ArrayList<AudioTrack>();
-		JsonBrowser page;
-		var offset = 0;
-		var pages = 0;
-		do {
-			page = this.getJson(API_BASE + "playlists/" + id + "/tracks?limit=" + PLAYLIST_MAX_PAGE_ITEMS + "&offset=" + offset, anonymous, this.preferAnonymousToken);
-			offset += PLAYLIST_MAX_PAGE_ITEMS;
-
+		PageLoader loadPage = page -> {
+			var tracks = new ArrayList<AudioTrack>();
 			for (var value : page.get("items").values()) {
 				var track = value.get("track");
 				if (track.isNull() || track.get("type").text().equals("episode") || (!this.localFiles && track.get("is_local").asBoolean(false))) {
@@ -486,15 +491,15 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 
 				tracks.add(this.parseTrack(track, preview));
 			}
-
-		}
-		while (page.get("next").text() != null && ++pages < this.playlistPageLimit);
+			return tracks;
+		};
+		var tracks = this.loadPages(API_BASE + "playlists/" + id + "/tracks?limit=" + PLAYLIST_MAX_PAGE_ITEMS + "&offset=", PLAYLIST_MAX_PAGE_ITEMS, this.playlistPageLimit, anonymous, loadPage);
 
 		return new SpotifyAudioPlaylist(json.get("name").safeText(), tracks, ExtendedAudioPlaylist.Type.PLAYLIST, json.get("external_urls").get("spotify").text(), json.get("images").index(0).get("url").text(), json.get("owner").get("display_name").text(), (int) json.get("tracks").get("total").asLong(0));
 	}
 
 	public AudioItem getArtist(String id, boolean preview) throws IOException {
-		var json = this.getJson(API_BASE + "artists/" + id, false, this.preferAnonymousToken);
+		var json = this.getArtistJson(id);
 		if (json == null) {
 			return AudioReference.NO_TRACK;
 		}
@@ -517,7 +522,7 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 			return AudioReference.NO_TRACK;
 		}
 
-		var artistJson = this.getJson(API_BASE + "artists/" + json.get("artists").index(0).get("id").text(), false, this.preferAnonymousToken);
+		var artistJson = this.getArtistJson(json.get("artists").index(0).get("id").text());
 		if (artistJson != null) {
 			json.get("artists").index(0).put("images", artistJson.get("images"));
 		}
@@ -525,6 +530,100 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 		return this.parseTrack(json, preview);
 	}
 
+	/**
+	 * @return the cached artist or the artist fetched from the API, null if it does not exist
+	 */
+	@Nullable
+	private JsonBrowser getArtistJson(String id) throws IOException {
+		var artist = this.artistCache.get(id);
+		if (artist != null) {
+			return artist;
+		}
+		var json = this.getJson(API_BASE + "artists/" + id, false, this.preferAnonymousToken);
+		if (json == null) {
+			return null;
+		}
+		return this.artistCache.put(json);
+	}
+
+	/**
+	 * Looks up all artists in the cache and fetches only the missing ones in batches.
+	 */
+	private Map<String, JsonBrowser> getArtists(Collection<String> ids, boolean preferAnonymous) throws IOException {
+		var artists = new HashMap<String, JsonBrowser>();
+		var missing = new LinkedHashSet<String>();
+		for (var id : ids) {
+			if (id == null) {
+				continue;
+			}
+			var artist = this.artistCache.get(id);
+			if (artist != null) {
+				artists.put(id, artist);
+			} else {
+				missing.add(id);
+			}
+		}
+
+		var missingIds = new ArrayList<>(missing);
+		for (var i = 0; i < missingIds.size(); i += ARTISTS_MAX_IDS) {
+			var batch = missingIds.subList(i, Math.min(i + ARTISTS_MAX_IDS, missingIds.size()));
+			var json = this.getJson(API_BASE + "artists?ids=" + String.join(",", batch), false, preferAnonymous);
+			if (json == null) {
+				continue;
+			}
+			for (var artistJson : json.get("artists").values()) {
+				if (artistJson.isNull()) {
+					continue;
+				}
+				var artist = this.artistCache.put(artistJson);
+				artists.put(artist.get("id").text(), artist);
+			}
+		}
+		return artists;
+	}
+
+	/**
+	 * Fetches the first page to learn the total amount of items, then fetches the remaining pages concurrently and returns their tracks in order.
+	 */
+	private List<AudioTrack> loadPages(String pageUrl, int pageSize, int pageLimit, boolean anonymous, PageLoader loadPage) throws IOException {
+		var firstPage = this.getJson(pageUrl + 0, anonymous, this.preferAnonymousToken);
+		if (firstPage == null) {
+			return new ArrayList<>();
+		}
+		var tracks = new ArrayList<>(loadPage.load(firstPage));
+
+		var total = firstPage.get("total").asLong(0);
+		var pages = (int) Math.min(pageLimit, (total + pageSize - 1) / pageSize);
+		if (pages <= 1 || firstPage.get("next").text() == null) {
+			return tracks;
+		}
+
+		var futures = new ArrayList<Future<List<AudioTrack>>>(pages - 1);
+		try {
+			for (var i = 1; i < pages; i++) {
+				var offset = i * pageSize;
+				futures.add(this.pageExecutor.submit(() -> {
+					var page = this.getJson(pageUrl + offset, anonymous, this.preferAnonymousToken);
+					return page == null ? Collections.<AudioTrack>emptyList() : loadPage.load(page);
+				}));
+			}
+			for (var future : futures) {
+				tracks.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading pages", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+		return tracks;
+	}
+
 	private List<AudioTrack> parseTracks(JsonBrowser json, boolean preview) {
 		var tracks = new ArrayList<AudioTrack>();
 		for (var value : json.get("tracks").values()) {
@@ -568,6 +667,7 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 
 	@Override
 	public void shutdown() {
+		this.pageExecutor.shutdownNow();
 		try {
 			this.httpInterfaceManager.close();
 		} catch (IOException e) {
@@ -584,4 +684,9 @@ public class SpotifySourceManager extends MirroringAudioSourceManager implements
 	public void configureBuilder(Consumer<HttpClientBuilder> configurator) {
 		this.httpInterfaceManager.configureBuilder(configurator);
 	}
+
+	@FunctionalInterface
+	private interface PageLoader {
+		List<AudioTrack> load(JsonBrowser page) throws IOException;
+	}
 }
\ No newline at end of file
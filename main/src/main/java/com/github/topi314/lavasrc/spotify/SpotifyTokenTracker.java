@@ -1,12 +1,12 @@
 package com.github.topi314.lavasrc.spotify;
 
 import com.github.topi314.lavasrc.LavaSrcTools;
+import com.github.topi314.lavasrc.TokenHolder;
+import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.jsoup.Jsoup;
@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
@@ -32,22 +33,23 @@ import java.util.regex.Pattern;
 public class SpotifyTokenTracker {
 	private static final Logger log = LoggerFactory.getLogger(SpotifyTokenTracker.class);
 
-	private static final Pattern SECRET_PATTERN = Pattern.compile("\"secret\":\\[(\\d+(?:,\\d+)+)]");
+	private static final Pattern SECRET_PATTERN = Pattern.compile("\"secret\":\\[(\\d+(?:,\\d+)+)](?:,\"version\":(\\d+))?");
+	private static final int DEFAULT_SECRET_VERSION = 7;
 
 	private final SpotifySourceManager sourceManager;
 
 	private String clientId;
 	private String clientSecret;
-	private String accessToken;
-	private Instant expires;
+	private final TokenHolder<AccessToken> accessToken = new TokenHolder<>("Spotify", this::refreshAccessToken, value -> value.expires, Duration.ofMinutes(5));
 
 	private String customTokenEndpoint;
-	private String anonymousAccessToken;
-	private Instant anonymousExpires;
+	private final TokenHolder<AccessToken> anonymousAccessToken = new TokenHolder<>("Spotify anonymous", this::refreshAnonymousAccessToken, value -> value.expires, Duration.ofMinutes(5));
+
+	private final Object secretLock = new Object();
+	private volatile TotpSecret secret;
 
 	private String spDc;
-	private String accountAccessToken;
-	private Instant accountAccessTokenExpire;
+	private final TokenHolder<AccessToken> accountAccessToken = new TokenHolder<>("Spotify account", this::fetchAccountAccessToken, value -> value.expires, Duration.ofMinutes(5));
 
 	public SpotifyTokenTracker(SpotifySourceManager source, String clientId, String clientSecret, String spDc) {
 		this(source, clientId, clientSecret, spDc, null);
@@ -73,16 +75,13 @@ public class SpotifyTokenTracker {
 	public void setClientIDS(String clientId, String clientSecret) {
 		this.clientId = clientId;
 		this.clientSecret = clientSecret;
-		this.accessToken = null;
-		this.expires = null;
+		this.accessToken.invalidate();
 	}
 
 	public void setCustomTokenEndpoint(String customTokenEndpoint) {
 		this.customTokenEndpoint = customTokenEndpoint;
-		this.anonymousAccessToken = null;
-		this.anonymousExpires = null;
-		this.accountAccessToken = null;
-		this.accountAccessTokenExpire = null;
+		this.anonymousAccessToken.invalidate();
+		this.accountAccessToken.invalidate();
 	}
 
 	private boolean hasValidCredentials() {
@@ -93,18 +92,10 @@ public class SpotifyTokenTracker {
 		if (preferAnonymousToken || !hasValidCredentials()) {
 			return this.getAnonymousAccessToken();
 		}
-		if (this.accessToken == null || this.expires == null || this.expires.isBefore(Instant.now())) {
-			synchronized (this) {
-				if (accessToken == null || this.expires == null || this.expires.isBefore(Instant.now())) {
-					log.debug("Access token is invalid or expired, refreshing token...");
-					this.refreshAccessToken();
-				}
-			}
-		}
-		return this.accessToken;
+		return this.accessToken.get().token;
 	}
 
-	private void refreshAccessToken() throws IOException {
+	private AccessToken refreshAccessToken() throws IOException {
 		var request = new HttpPost("https://accounts.spotify.com/api/token");
 		request.addHeader("Authorization", "Basic " + Base64.getEncoder().encodeToString((this.clientId + ":" + this.clientSecret).getBytes(StandardCharsets.UTF_8)));
 		request.setEntity(new UrlEncodedFormEntity(List.of(new BasicNameValuePair("grant_type", "client_credentials")), StandardCharsets.UTF_8));
@@ -117,26 +108,17 @@ public class SpotifyTokenTracker {
 			var error = json.get("error").text();
 			throw new RuntimeException("Error while fetching access token: " + error);
 		}
-		accessToken = json.get("access_token").text();
-		expires = Instant.now().plusSeconds(json.get("expires_in").asLong(0));
+		return new AccessToken(json.get("access_token").text(), Instant.now().plusSeconds(json.get("expires_in").asLong(0)));
 	}
 
 	public String getAnonymousAccessToken() throws IOException {
-		if (this.anonymousAccessToken == null || this.anonymousExpires == null || this.anonymousExpires.isBefore(Instant.now())) {
-			synchronized (this) {
-				if (this.anonymousAccessToken == null || this.anonymousExpires == null || this.anonymousExpires.isBefore(Instant.now())) {
-					log.debug("Anonymous access token is invalid or expired, refreshing token...");
-					this.refreshAnonymousAccessToken();
-				}
-			}
-		}
-		return this.anonymousAccessToken;
+		return this.anonymousAccessToken.get().token;
 	}
 
-	private void refreshAnonymousAccessToken() throws IOException {
+	private AccessToken refreshAnonymousAccessToken() throws IOException {
 		var request = new HttpGet(generateGetAccessTokenURL());
 
-		var json = LavaSrcTools.fetchResponseAsJson(sourceManager.getHttpInterface(), request);
+		var json = this.fetchWebPlayerToken(request);
 		if (json == null) {
 			throw new RuntimeException("No response from Spotify API while fetching anonymous access token.");
 		}
@@ -145,35 +127,32 @@ public class SpotifyTokenTracker {
 			throw new RuntimeException("Error while fetching anonymous access token: " + error);
 		}
 
-		anonymousAccessToken = json.get("accessToken").text();
-		anonymousExpires = Instant.ofEpochMilli(json.get("accessTokenExpirationTimestampMs").asLong(0));
+		return new AccessToken(json.get("accessToken").text(), Instant.ofEpochMilli(json.get("accessTokenExpirationTimestampMs").asLong(0)));
 	}
 
 	public void setSpDc(String spDc) {
 		this.spDc = spDc;
-		this.accountAccessToken = null;
-		this.accountAccessTokenExpire = null;
+		this.accountAccessToken.invalidate();
 	}
 
 	public String getAccountAccessToken() throws IOException {
-		if (this.accountAccessToken == null || this.accountAccessTokenExpire == null || this.accountAccessTokenExpire.isBefore(Instant.now())) {
-			synchronized (this) {
-				if (this.accountAccessToken == null || this.accountAccessTokenExpire == null || this.accountAccessTokenExpire.isBefore(Instant.now())) {
-					log.debug("Account token is invalid or expired, refreshing token...");
-					this.refreshAccountAccessToken();
-				}
-			}
-		}
-		return this.accountAccessToken;
+		return this.accountAccessToken.get().token;
 	}
 
+	/**
+	 * Fetches a new account access token right away, requests waiting for a token share the result.
+	 */
 	public void refreshAccountAccessToken() throws IOException {
+		this.accountAccessToken.refreshNow();
+	}
+
+	private AccessToken fetchAccountAccessToken() throws IOException {
 		var request = new HttpGet(generateGetAccessTokenURL());
 		request.addHeader("App-Platform", "WebPlayer");
 		request.addHeader("Cookie", "sp_dc=" + this.spDc);
 
 		try {
-			var json = LavaSrcTools.fetchResponseAsJson(this.sourceManager.getHttpInterface(), request);
+			var json = this.fetchWebPlayerToken(request);
 			if (json == null) {
 				throw new RuntimeException("No response from Spotify API while fetching account access token.");
 			}
@@ -182,14 +161,29 @@ public class SpotifyTokenTracker {
 				log.error("Error while fetching account token: {}", error);
 				throw new RuntimeException("Error while fetching account access token: " + error);
 			}
-			this.accountAccessToken = json.get("accessToken").text();
-			this.accountAccessTokenExpire = Instant.ofEpochMilli(json.get("accessTokenExpirationTimestampMs").asLong(0));
+			return new AccessToken(json.get("accessToken").text(), Instant.ofEpochMilli(json.get("accessTokenExpirationTimestampMs").asLong(0)));
 		} catch (IOException e) {
 			log.error("Account token refreshing failed.", e);
 			throw new RuntimeException("Account token refreshing failed", e);
 		}
 	}
 
+	/**
+	 * Fetches a token from the web player token endpoint and forgets the cached secret if the request failed, as the secret might have been rotated.
+	 */
+	private JsonBrowser fetchWebPlayerToken(HttpGet request) throws IOException {
+		try {
+			var json = LavaSrcTools.fetchResponseAsJson(this.sourceManager.getHttpInterface(), request);
+			if (json == null || !json.get("error").isNull()) {
+				this.invalidateSecret();
+			}
+			return json;
+		} catch (IOException | RuntimeException e) {
+			this.invalidateSecret();
+			throw e;
+		}
+	}
+
 	public boolean hasValidAccountCredentials() {
 		return this.spDc != null && !this.spDc.isEmpty();
 	}
@@ -199,49 +193,64 @@ public class SpotifyTokenTracker {
 			return this.customTokenEndpoint;
 		}
 
-		var secret = requestSecret();
-		if (secret == null) {
-			throw new IOException("Failed to retrieve secret from Spotify.");
-		}
-		var transformedSecret = convertArrayToTransformedByteArray(secret);
-		var hexSecret = toHexString(transformedSecret);
-		var totp = generateTOTP(hexSecret, 30, 6);
+		var secret = this.getSecret();
+		var totp = generateTOTP(secret.hexSecret, 30, 6);
 		var ts = System.currentTimeMillis();
-		return "https://open.spotify.com/api/token?reason=init&productType=web-player&totp=" + totp + "&totpVer=7&ts=" + ts;
+		return "https://open.spotify.com/api/token?reason=init&productType=web-player&totp=" + totp + "&totpVer=" + secret.version + "&ts=" + ts;
 	}
 
-	private byte[] requestSecret() throws IOException {
+	private TotpSecret getSecret() throws IOException {
+		var secret = this.secret;
+		if (secret != null) {
+			return secret;
+		}
+		synchronized (this.secretLock) {
+			if (this.secret == null) {
+				this.secret = this.requestSecret();
+			}
+			return this.secret;
+		}
+	}
+
+	private void invalidateSecret() {
+		if (this.secret != null) {
+			log.debug("Invalidating cached Spotify secret");
+			this.secret = null;
+		}
+	}
+
+	private TotpSecret requestSecret() throws IOException {
 		String homepageUrl = "https://open.spotify.com/";
 		String scriptPattern = "mobile-web-player";
 
 		log.debug("Requesting secret from Spotify homepage: {}", homepageUrl);
 
-		try (CloseableHttpClient client = HttpClients.createDefault()) {
-			HttpGet request = new HttpGet(homepageUrl);
-			try (CloseableHttpResponse response = client.execute(request)) {
-				String html = EntityUtils.toString(response.getEntity());
-				Document doc = Jsoup.parse(html);
-				Elements scriptElements = doc.select("script[src]");
-				List<String> scriptUrls = new ArrayList<>();
-				log.debug("Found {} script elements in the HTML", scriptElements.size());
-				for (Element script : scriptElements) {
-					String scriptUrl = script.attr("src");
-					if (scriptUrl.contains(scriptPattern) && !scriptUrl.contains("vendor")) {
-						scriptUrls.add(scriptUrl);
-						log.debug("Found relevant script URL: {}", scriptUrl);
-					}
-				}
-				if (scriptUrls.isEmpty()) {
-					log.debug("No relevant script URLs found.");
-					return null;
+		try (var httpInterface = this.sourceManager.getHttpInterface()) {
+			String html;
+			try (var response = httpInterface.execute(new HttpGet(homepageUrl))) {
+				html = EntityUtils.toString(response.getEntity());
+			}
+			Document doc = Jsoup.parse(html);
+			Elements scriptElements = doc.select("script[src]");
+			List<String> scriptUrls = new ArrayList<>();
+			log.debug("Found {} script elements in the HTML", scriptElements.size());
+			for (Element script : scriptElements) {
+				String scriptUrl = script.attr("src");
+				if (scriptUrl.contains(scriptPattern) && !scriptUrl.contains("vendor")) {
+					scriptUrls.add(scriptUrl);
+					log.debug("Found relevant script URL: {}", scriptUrl);
 				}
-				for (String scriptUrl : scriptUrls) {
-					log.debug("Attempting to extract secret from script URL: {}", scriptUrl);
-					byte[] secret = extractSecret(client, scriptUrl);
-					if (secret != null) {
-						log.debug("Successfully extracted secret.");
-						return secret;
-					}
+			}
+			if (scriptUrls.isEmpty()) {
+				log.debug("No relevant script URLs found.");
+				throw new IOException("Failed to retrieve secret from Spotify.");
+			}
+			for (String scriptUrl : scriptUrls) {
+				log.debug("Attempting to extract secret from script URL: {}", scriptUrl);
+				var secret = extractSecret(httpInterface, scriptUrl);
+				if (secret != null) {
+					log.debug("Successfully extracted secret with version {}.", secret.version);
+					return secret;
 				}
 			}
 		} catch (IOException e) {
@@ -249,7 +258,7 @@ public class SpotifyTokenTracker {
 			throw new IOException("Failed to request or parse the secret", e);
 		}
 		log.error("No secret found.");
-		return null;
+		throw new IOException("Failed to retrieve secret from Spotify.");
 	}
 
 	private static String generateTOTP(String secret, int period, int digits) {
@@ -273,9 +282,9 @@ public class SpotifyTokenTracker {
 		}
 	}
 
-	private static byte[] extractSecret(CloseableHttpClient client, String scriptUrl) throws IOException {
+	private static TotpSecret extractSecret(HttpInterface httpInterface, String scriptUrl) throws IOException {
 		var scriptRequest = new HttpGet(scriptUrl);
-		try (var scriptResponse = client.execute(scriptRequest)) {
+		try (var scriptResponse = httpInterface.execute(scriptRequest)) {
 			var scriptContent = EntityUtils.toString(scriptResponse.getEntity());
 
 			var matcher = SECRET_PATTERN.matcher(scriptContent);
@@ -287,7 +296,8 @@ public class SpotifyTokenTracker {
 					secretByteArray[i] = (byte) Integer.parseInt(secretArray[i].trim());
 				}
 
-				return secretByteArray;
+				var version = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : DEFAULT_SECRET_VERSION;
+				return new TotpSecret(toHexString(convertArrayToTransformedByteArray(secretByteArray)), version);
 			} else {
 				log.error("No secret array found in script: {}", scriptUrl);
 				return null;
@@ -327,4 +337,24 @@ public class SpotifyTokenTracker {
 		return data;
 	}
 
+	private static class TotpSecret {
+		private final String hexSecret;
+		private final int version;
+
+		private TotpSecret(String hexSecret, int version) {
+			this.hexSecret = hexSecret;
+			this.version = version;
+		}
+	}
+
+	private static class AccessToken {
+		private final String token;
+		private final Instant expires;
+
+		private AccessToken(String token, Instant expires) {
+			this.token = token;
+			this.expires = expires;
+		}
+	}
+
 }
@@ -76,7 +76,7 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		try {
 			var matcher = URL_PATTERN.matcher(reference.identifier);
 			if (matcher.matches()) {
@@ -85,13 +85,13 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 
 				switch (type) {
 					case "album":
-						return this.getAlbumOrPlaylist(id, "album", ALBUM_MAX_PAGE_ITEMS);
+						return this.preload(this.getAlbumOrPlaylist(id, "album", ALBUM_MAX_PAGE_ITEMS));
 					case "mix":
-						return this.getMix(id);
+						return this.preload(this.getMix(id));
 					case "track":
 						return this.getTrack(id);
 					case "playlist":
-						return this.getAlbumOrPlaylist(id, "playlist", PLAYLIST_MAX_PAGE_ITEMS);
+						return this.preload(this.getAlbumOrPlaylist(id, "playlist", PLAYLIST_MAX_PAGE_ITEMS));
 					default:
 						return null;
 				}
@@ -110,7 +110,7 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 				if (trackId.isEmpty()) {
 					throw new IllegalArgumentException("No track ID provided for recommendations");
 				}
-				return this.getRecommendations(trackId);
+				return this.preload(this.getRecommendations(trackId));
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
@@ -119,30 +119,23 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 	}
 
 	private JsonBrowser getJson(String uri) throws IOException {
+		return this.fetch(uri, JsonBrowser::parse);
+	}
+
+	private <T> T fetch(String uri, LavaSrcTools.ResponseReader<T> reader) throws IOException {
 		var request = new HttpGet(uri);
 		request.setHeader("user-agent", USER_AGENT);
 		request.setHeader("x-tidal-token", this.tidalToken);
-		return LavaSrcTools.fetchResponseAsJson(this.httpInterfaceManager.getInterface(), request);
-	}
-
-	private List<AudioTrack> parseTracks(JsonBrowser json) {
-		var tracks = new ArrayList<AudioTrack>();
-		for (var audio : json.values()) {
-			var parsedTrack = this.parseTrack(audio);
-			if (parsedTrack != null) {
-				tracks.add(parsedTrack);
-			}
-		}
-		return tracks;
+		return LavaSrcTools.fetchResponse(this.httpInterfaceManager.getInterface(), request, reader);
 	}
 
 	private AudioItem getSearch(String query) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&offset=0&limit=" + searchLimit + "&countryCode=" + countryCode);
-		if (json.get("tracks").get("items").isNull()) {
+		var trackList = this.fetch(PUBLIC_API_BASE + "search?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&offset=0&limit=" + searchLimit + "&countryCode=" + countryCode, TidalTrackList::readSearch);
+		if (trackList == null) {
 			return AudioReference.NO_TRACK;
 		}
 
-		var tracks = this.parseTracks(json.get("tracks").get("items"));
+		var tracks = this.parseTracks(trackList);
 		if (tracks.isEmpty()) {
 			return AudioReference.NO_TRACK;
 		}
@@ -164,34 +157,31 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 		return this.getMix(mixId);
 	}
 
-	private AudioTrack parseTrack(JsonBrowser audio) {
-		var id = audio.get("id").text();
-		var duration = audio.get("duration").asLong(0) * 1000;
+	private AudioTrack parseTrack(TidalTrackList.Track audio) {
+		var duration = audio.duration * 1000;
 		if (duration == 0) {
 			return null;
 		}
-		var title = audio.get("title").text();
-		var originalUrl = audio.get("url").text();
-		var artistName = audio.get("artists").values().stream().map(artist -> artist.get("name").text()).collect(Collectors.joining(", "));
+		var artistName = audio.artists == null ? "" : audio.artists.stream().map(artist -> artist.name).collect(Collectors.joining(", "));
 
-		var coverIdentifier = audio.get("album").get("cover").text();
+		// videos have no album
+		String coverIdentifier = audio.album == null ? null : audio.album.cover;
 		String artworkUrl;
 		if (coverIdentifier == null) {
 			artworkUrl = "https://tidal.com/_nuxt/img/logos.d8ce10b.jpg";
 		} else {
 			artworkUrl = "https://resources.tidal.com/images/" + coverIdentifier.replaceAll("-", "/") + "/1280x1280.jpg";
 		}
-		var isrc = audio.get("isrc").text();
-		return new TidalAudioTrack(new AudioTrackInfo(title, artistName, duration, id, false, originalUrl, artworkUrl, isrc), this);
+		return new TidalAudioTrack(new AudioTrackInfo(audio.title, artistName, duration, audio.id, false, audio.url, artworkUrl, audio.isrc), this);
 	}
 
 	private AudioItem getAlbumOrPlaylist(String itemId, String type, int maxPageItems) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + type + "s/" + itemId + "/tracks?countryCode=" + countryCode + "&limit=" + maxPageItems);
-		if (json == null || json.get("items").isNull()) {
+		var trackList = this.fetch(PUBLIC_API_BASE + type + "s/" + itemId + "/tracks?countryCode=" + countryCode + "&limit=" + maxPageItems, TidalTrackList::read);
+		if (trackList == null) {
 			return AudioReference.NO_TRACK;
 		}
 
-		var items = this.parseTrackItem(json);
+		var items = this.parseTracks(trackList);
 		if (items.isEmpty()) {
 			return AudioReference.NO_TRACK;
 		}
@@ -236,12 +226,12 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 	}
 
 	public AudioItem getTrack(String trackId) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "tracks/" + trackId + "?countryCode=" + countryCode);
-		if (json == null || json.isNull()) {
+		var trackData = this.fetch(PUBLIC_API_BASE + "tracks/" + trackId + "?countryCode=" + countryCode, TidalTrackList::readTrack);
+		if (trackData == null) {
 			return AudioReference.NO_TRACK;
 		}
 
-		var track = this.parseTrack(json);
+		var track = this.parseTrack(trackData);
 		if (track == null) {
 			return AudioReference.NO_TRACK;
 		}
@@ -250,12 +240,12 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 	}
 
 	public AudioItem getMix(String mixId) throws IOException {
-		var json = this.getJson(PUBLIC_API_BASE + "mixes/" + mixId + "/items?countryCode=" + countryCode);
-		if (json == null || json.get("items").isNull()) {
+		var trackList = this.fetch(PUBLIC_API_BASE + "mixes/" + mixId + "/items?countryCode=" + countryCode, TidalTrackList::read);
+		if (trackList == null) {
 			return AudioReference.NO_TRACK;
 		}
 
-		var items = this.parseTrackItem(json);
+		var items = this.parseTracks(trackList);
 		if (items.isEmpty()) {
 			return AudioReference.NO_TRACK;
 		}
@@ -263,10 +253,13 @@ public class TidalSourceManager extends MirroringAudioSourceManager implements H
 		return new BasicAudioPlaylist("Mix: " + mixId, items, null, false);
 	}
 
-	private List<AudioTrack> parseTrackItem(JsonBrowser json) {
+	private List<AudioTrack> parseTracks(TidalTrackList trackList) {
 		var tracks = new ArrayList<AudioTrack>();
-		for (var audio : json.get("items").values()) {
-			var parsedTrack = this.parseTrack(audio.get("item").isNull() ? audio : audio.get("item"));
+		if (trackList.items == null) {
+			return tracks;
+		}
+		for (var audio : trackList.items) {
+			var parsedTrack = this.parseTrack(audio.track());
 			if (parsedTrack != null) {
 				tracks.add(parsedTrack);
 			}
@@ -0,0 +1,79 @@
+package com.github.topi314.lavasrc.tidal;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * A page of tracks as returned by the API, e.g. /playlists/{id}/tracks or /mixes/{id}/items.
+ * Decoded straight from the response stream with only the fields we need, as playlist pages have up to 750 tracks.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+class TidalTrackList {
+
+	private static final ObjectReader READER = new ObjectMapper().readerFor(TidalTrackList.class);
+	private static final ObjectReader TRACK_READER = READER.forType(Track.class);
+	private static final ObjectReader SEARCH_READER = READER.forType(SearchResult.class);
+
+	public List<Item> items = List.of();
+
+	static TidalTrackList read(InputStream stream) throws IOException {
+		return READER.readValue(stream);
+	}
+
+	/**
+	 * Reads a single track as returned by /tracks/{id}.
+	 */
+	static Track readTrack(InputStream stream) throws IOException {
+		return TRACK_READER.readValue(stream);
+	}
+
+	/**
+	 * Reads the tracks of a /search response.
+	 */
+	static TidalTrackList readSearch(InputStream stream) throws IOException {
+		return SEARCH_READER.<SearchResult>readValue(stream).tracks;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Track {
+		public String id;
+		public String title;
+		public long duration;
+		public String url;
+		public String isrc;
+		public List<Artist> artists = List.of();
+		public Album album = new Album();
+	}
+
+	/**
+	 * Playlist and mix items wrap the track in an item field, album tracks are listed directly.
+	 */
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Item extends Track {
+		public Track item;
+
+		Track track() {
+			return this.item != null ? this.item : this;
+		}
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Artist {
+		public String name;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class Album {
+		public String cover;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class SearchResult {
+		public TidalTrackList tracks;
+	}
+}
@@ -245,7 +245,7 @@ public class VkMusicSourceManager extends ExtendedAudioSourceManager implements
 
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		try {
 			if (reference.identifier.startsWith(SEARCH_PREFIX)) {
 				return this.getSearch(reference.identifier.substring(SEARCH_PREFIX.length()));
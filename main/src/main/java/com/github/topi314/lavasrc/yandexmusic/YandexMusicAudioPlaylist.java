@@ -11,4 +11,9 @@ public class YandexMusicAudioPlaylist extends ExtendedAudioPlaylist {
 		super(name, tracks, type, url, artworkURL, author, totalTracks);
 	}
 
+	@Override
+	public ExtendedAudioPlaylist copyWithTracks(List<AudioTrack> tracks) {
+		return new YandexMusicAudioPlaylist(this.getName(), tracks, this.type, this.url, this.artworkURL, this.author, this.totalTracks);
+	}
+
 }
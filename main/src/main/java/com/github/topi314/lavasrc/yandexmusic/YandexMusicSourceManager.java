@@ -284,7 +284,7 @@ public class YandexMusicSourceManager extends ExtendedAudioSourceManager impleme
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		try {
 			if (reference.identifier.startsWith(SEARCH_PREFIX)) {
 				return this.getSearch(reference.identifier.substring(SEARCH_PREFIX.length()));
@@ -4,16 +4,23 @@ import com.sedmelluq.discord.lavaplayer.container.mpeg.MpegAudioTrack;
 import com.sedmelluq.discord.lavaplayer.container.mpeg.MpegFileLoader;
 import com.sedmelluq.discord.lavaplayer.container.mpeg.MpegTrackConsumer;
 import com.sedmelluq.discord.lavaplayer.container.mpeg.reader.MpegFileTrackProvider;
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
 import com.sedmelluq.discord.lavaplayer.tools.DataFormatTools;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.SeekableInputStream;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.info.AudioTrackInfoProvider;
 import com.sedmelluq.discord.lavaplayer.track.playback.AudioProcessingContext;
 import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.util.EntityUtils;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,7 +28,15 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 import static com.sedmelluq.discord.lavaplayer.tools.FriendlyException.Severity.SUSPICIOUS;
 import static com.sedmelluq.discord.lavaplayer.tools.Units.CONTENT_LENGTH_UNKNOWN;
@@ -42,8 +57,16 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 	private static final long EMPTY_RETRY_INTERVAL_MS = 50;
 	private static final long MAX_REWIND_TIME = 43200; // Seconds
 
+	private static final long LIVE_EDGE_PROBE_TIMEOUT_MS = 5000;
+
+	private static final ExecutorService backgroundExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("ytdlp-segment"));
+
 	private final HttpInterface httpInterface;
+	@Nullable
+	private final Supplier<HttpInterface> backgroundInterface;
 	private final TrackState state;
+	@Nullable
+	private final Future<?> liveEdgeProbe;
 
 	/**
 	 * @param trackInfo     Track info
@@ -53,14 +76,42 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 	public YoutubeMpegStreamAudioTrack(AudioTrackInfo trackInfo,
 	                                   HttpInterface httpInterface,
 	                                   URI signedUrl) {
+		this(trackInfo, httpInterface, signedUrl, null);
+	}
+
+	/**
+	 * @param trackInfo         Track info
+	 * @param httpInterface     HTTP interface to use for loading segments
+	 * @param signedUrl         URI of the base stream with signature resolved
+	 * @param backgroundInterface Provides the HTTP interfaces for requests made in the background (next segment, live edge),
+	 *                            null disables prefetching and defers the live edge probe to the first seek
+	 */
+	public YoutubeMpegStreamAudioTrack(AudioTrackInfo trackInfo,
+	                                   HttpInterface httpInterface,
+	                                   URI signedUrl,
+	                                   @Nullable Supplier<HttpInterface> backgroundInterface) {
 		super(trackInfo, null);
 
 		this.httpInterface = httpInterface;
+		this.backgroundInterface = backgroundInterface;
 		this.state = new TrackState(signedUrl);
 
 		// YouTube does not return a segment until it is ready, this might trigger a connect timeout otherwise.
 		httpInterface.getContext().setRequestConfig(streamingRequestConfig);
-		updateGlobalSequence();
+
+		// Playback doesn't need the live edge, only duration and seeking do. Segments keep it up to date afterwards.
+		if (backgroundInterface != null) {
+			this.liveEdgeProbe = backgroundExecutor.submit(() -> {
+				try (HttpInterface probeHttpInterface = backgroundInterface.get()) {
+					probeHttpInterface.getContext().setRequestConfig(streamingRequestConfig);
+					probeLiveEdge(probeHttpInterface);
+				} catch (IOException ignored) {
+
+				}
+			});
+		} else {
+			this.liveEdgeProbe = null;
+		}
 	}
 
 	@Override
@@ -85,11 +136,37 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 	@Override
 	public void setPosition(long position) {
 		state.seeking = true;
-		updateGlobalSequence();
+		if (!state.liveEdgeKnown) {
+			awaitLiveEdge();
+		}
 		getActiveExecutor().setPosition(position);
 	}
 
-	private void updateGlobalSequence() {
+	/**
+	 * Only used until the first segment told us the live edge, either waits for the probe started by the constructor or probes now.
+	 */
+	private void awaitLiveEdge() {
+		if (liveEdgeProbe != null) {
+			try {
+				liveEdgeProbe.get(LIVE_EDGE_PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException | TimeoutException ignored) {
+
+			}
+		}
+
+		if (!state.liveEdgeKnown) {
+			try {
+				probeLiveEdge(httpInterface);
+			} catch (IOException ignored) {
+
+			}
+		}
+	}
+
+	private void probeLiveEdge(HttpInterface httpInterface) throws IOException {
 		try (YoutubePersistentHttpStream stream = new YoutubePersistentHttpStream(httpInterface, state.initialUrl, CONTENT_LENGTH_UNKNOWN)) {
 			MpegFileLoader file = new MpegFileLoader(stream);
 			file.parseHeaders();
@@ -97,11 +174,20 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 			SequenceInfo sequenceInfo = extractAbsoluteSequenceFromEvent(file.getLastEventMessage());
 
 			if (sequenceInfo != null) {
-				state.globalSequence = sequenceInfo.sequence;
-				state.globalSequenceDuration = sequenceInfo.duration;
+				updateLiveEdge(sequenceInfo);
 			}
-		} catch (IOException ignored) {
+		}
+	}
 
+	private void updateLiveEdge(SequenceInfo sequenceInfo) {
+		synchronized (state) {
+			// never move the live edge back, a probe may finish after newer segments were played
+			state.globalSequence = Math.max(state.globalSequence, sequenceInfo.headSequence != null ? sequenceInfo.headSequence : sequenceInfo.sequence);
+			state.globalSequenceDuration = sequenceInfo.duration;
+			state.liveEdgeKnown = true;
+			if (sequenceInfo.headSequence != null) {
+				state.headSequenceReported = true;
+			}
 		}
 	}
 
@@ -114,9 +200,15 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 			while (!state.finished) {
 				processNextSegmentWithRetry(localExecutor);
 				state.relativeSequence++;
-				state.globalSequence++;
+				if (!state.headSequenceReported) {
+					// estimate the live edge by assuming it moves one segment per played segment
+					synchronized (state) {
+						state.globalSequence++;
+					}
+				}
 			}
 		} finally {
+			cancelPrefetch();
 			if (state.trackConsumer != null && !state.seeking) {
 				state.trackConsumer.close();
 			} else {
@@ -145,18 +237,24 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 		}
 
 		// First attempt gave empty result, possibly because the stream is not yet finished, but the next segment is just
-		// not ready yet. Keep retrying at EMPTY_RETRY_INTERVAL_MS intervals until EMPTY_RETRY_THRESHOLD_MS is reached.
+		// not ready yet. Keep retrying with a growing interval for up to one segment duration (at least
+		// EMPTY_RETRY_THRESHOLD_MS), so slow segments don't end the stream and fast ones aren't delayed by long sleeps.
+		long segmentDuration = state.globalSequenceDuration;
+		long threshold = Math.max(EMPTY_RETRY_THRESHOLD_MS, segmentDuration);
+		long maxInterval = Math.max(EMPTY_RETRY_INTERVAL_MS, segmentDuration / 4);
+		long interval = EMPTY_RETRY_INTERVAL_MS;
 		long waitStart = System.currentTimeMillis();
 		long iterationStart = waitStart;
 
 		while (!processNextSegment(localExecutor)) {
-			// EMPTY_RETRY_THRESHOLD_MS is the maximum time between the end of the first attempt and the beginning of the last
+			// the threshold is the maximum time between the end of the first attempt and the beginning of the last
 			// attempt, to avoid retry being skipped due to response coming slowly.
-			if (iterationStart - waitStart >= EMPTY_RETRY_THRESHOLD_MS) {
+			if (iterationStart - waitStart >= threshold) {
 				state.finished = true;
 				break;
 			} else {
-				Thread.sleep(EMPTY_RETRY_INTERVAL_MS);
+				Thread.sleep(Math.min(interval, Math.max(1, threshold - (iterationStart - waitStart))));
+				interval = Math.min(interval * 2, maxInterval);
 				iterationStart = System.currentTimeMillis();
 			}
 		}
@@ -169,6 +267,21 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 
 		log.debug("Segment URL: {}", segmentUrl.toString());
 
+		Segment prefetched = takePrefetchedSegment(segmentUrl);
+		if (prefetched != null) {
+			if (prefetched.statusCode == HttpStatus.SC_NO_CONTENT || prefetched.data.length == 0) {
+				return false;
+			}
+
+			state.redirectUrl = prefetched.finalLocation;
+			try {
+				processSegmentStream(new SegmentInputStream(prefetched.data), localExecutor.getProcessingContext(), state);
+			} catch (IOException e) {
+				return false;
+			}
+			return true;
+		}
+
 		try (YoutubePersistentHttpStream stream = new YoutubePersistentHttpStream(httpInterface, segmentUrl, CONTENT_LENGTH_UNKNOWN)) {
 			if (stream.checkStatusCode() == HttpStatus.SC_NO_CONTENT || stream.getContentLength() == 0) {
 				return false;
@@ -190,6 +303,69 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 		return true;
 	}
 
+	/**
+	 * Requests the segment after the current one in the background, so it is ready once the current one is demuxed.
+	 */
+	private void prefetchNextSegment() {
+		if (backgroundInterface == null) {
+			return;
+		}
+		cancelPrefetch();
+
+		URI url = getSegmentUrl(state, state.relativeSequence + 1);
+		state.prefetchUrl = url;
+		state.prefetch = backgroundExecutor.submit(() -> {
+			try (HttpInterface prefetchHttpInterface = backgroundInterface.get()) {
+				prefetchHttpInterface.getContext().setRequestConfig(streamingRequestConfig);
+				return fetchSegment(prefetchHttpInterface, url);
+			}
+		});
+	}
+
+	@Nullable
+	private Segment takePrefetchedSegment(URI url) throws InterruptedException {
+		Future<Segment> prefetch = state.prefetch;
+		URI prefetchUrl = state.prefetchUrl;
+		state.prefetch = null;
+		state.prefetchUrl = null;
+		if (prefetch == null) {
+			return null;
+		}
+		if (!url.equals(prefetchUrl)) {
+			// a seek changed the sequence
+			prefetch.cancel(true);
+			return null;
+		}
+
+		try {
+			return prefetch.get();
+		} catch (ExecutionException e) {
+			log.debug("Failed to prefetch segment, requesting it again", e.getCause());
+			return null;
+		}
+	}
+
+	private void cancelPrefetch() {
+		if (state.prefetch != null) {
+			state.prefetch.cancel(true);
+			state.prefetch = null;
+			state.prefetchUrl = null;
+		}
+	}
+
+	private static Segment fetchSegment(HttpInterface httpInterface, URI url) throws IOException {
+		try (CloseableHttpResponse response = httpInterface.execute(new HttpGet(url))) {
+			int statusCode = response.getStatusLine().getStatusCode();
+			if (statusCode == HttpStatus.SC_NO_CONTENT || response.getEntity() == null) {
+				return new Segment(statusCode, new byte[0], httpInterface.getFinalLocation());
+			}
+			if (!HttpClientTools.isSuccessWithContent(statusCode)) {
+				throw new IOException("Segment request failed with status code " + statusCode);
+			}
+			return new Segment(statusCode, EntityUtils.toByteArray(response.getEntity()), httpInterface.getFinalLocation());
+		}
+	}
+
 	private void processSegmentStream(SeekableInputStream stream, AudioProcessingContext context, TrackState state) throws InterruptedException, IOException {
 		MpegFileLoader file = new MpegFileLoader(stream);
 		file.parseHeaders();
@@ -201,9 +377,13 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 
 			if (sequenceInfo != null) {
 				state.absoluteSequence = sequenceInfo.sequence;
+				updateLiveEdge(sequenceInfo);
 			}
 		}
 
+		// the url of the next segment is known now, request it while this one is demuxed
+		prefetchNextSegment();
+
 		if (state.trackConsumer == null) {
 			state.trackConsumer = loadAudioTrack(file, context);
 		}
@@ -217,8 +397,12 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 	}
 
 	private URI getNextSegmentUrl(TrackState state) {
+		return getSegmentUrl(state, state.relativeSequence);
+	}
+
+	private URI getSegmentUrl(TrackState state, long relativeSequence) {
 		URIBuilder builder = new URIBuilder(state.redirectUrl == null ? state.initialUrl : state.redirectUrl)
-			.setParameter("rn", String.valueOf(state.relativeSequence))
+			.setParameter("rn", String.valueOf(relativeSequence))
 			.setParameter("rbuf", "0");
 
 		if (state.absoluteSequence != null) {
@@ -238,26 +422,45 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 		}
 
 		String message = new String(data, StandardCharsets.UTF_8);
-		String sequence = DataFormatTools.extractBetween(message, "Sequence-Number: ", "\r\n");
-		String duration = DataFormatTools.extractBetween(message, "Target-Duration-Us: ", "\r\n");
+		String sequence = extractEventField(message, "Sequence-Number");
+		String duration = extractEventField(message, "Target-Duration-Us");
+		String headSequence = extractEventField(message, "Head-Sequence-Number");
 
 		if (sequence != null && duration != null) {
-			return new SequenceInfo(Long.parseLong(sequence), TimeUnit.MICROSECONDS.toMillis(Long.parseLong(duration)));
+			return new SequenceInfo(
+				Long.parseLong(sequence),
+				TimeUnit.MICROSECONDS.toMillis(Long.parseLong(duration)),
+				headSequence != null ? Long.parseLong(headSequence) : null
+			);
 		}
 
 		return null;
 	}
 
+	@Nullable
+	private static String extractEventField(String message, String name) {
+		// match whole field names only, "Sequence-Number" is also the suffix of "Head-Sequence-Number"
+		if (message.startsWith(name + ": ")) {
+			return DataFormatTools.extractBetween(message, name + ": ", "\r\n");
+		}
+		return DataFormatTools.extractBetween(message, "\n" + name + ": ", "\r\n");
+	}
+
 	private static class TrackState {
 		private final URI initialUrl;
-		private long globalSequenceDuration;
-		private long globalSequence;
+		private volatile long globalSequenceDuration;
+		private volatile long globalSequence;
+		private volatile boolean liveEdgeKnown;
+		// segments report the live edge themselves, so it does not need to be estimated
+		private volatile boolean headSequenceReported;
 		private long relativeSequence;
 		private Long absoluteSequence;
 		private MpegTrackConsumer trackConsumer;
 		private boolean finished;
 		private boolean seeking;
 		private URI redirectUrl;
+		private Future<Segment> prefetch;
+		private URI prefetchUrl;
 
 		public TrackState(URI initialUrl) {
 			this.initialUrl = initialUrl;
@@ -267,10 +470,89 @@ public class YoutubeMpegStreamAudioTrack extends MpegAudioTrack {
 	private static class SequenceInfo {
 		private final long sequence;
 		private final long duration;
+		@Nullable
+		private final Long headSequence;
 
-		public SequenceInfo(long sequence, long duration) {
+		public SequenceInfo(long sequence, long duration, @Nullable Long headSequence) {
 			this.sequence = sequence;
 			this.duration = duration;
+			this.headSequence = headSequence;
+		}
+	}
+
+	private static class Segment {
+		private final int statusCode;
+		private final byte[] data;
+		private final URI finalLocation;
+
+		public Segment(int statusCode, byte[] data, URI finalLocation) {
+			this.statusCode = statusCode;
+			this.data = data;
+			this.finalLocation = finalLocation;
+		}
+	}
+
+	/**
+	 * A prefetched segment which is already fully in memory.
+	 */
+	private static class SegmentInputStream extends SeekableInputStream {
+		private final byte[] data;
+		private int position;
+
+		public SegmentInputStream(byte[] data) {
+			super(data.length, 0);
+			this.data = data;
+		}
+
+		@Override
+		public int read() {
+			return position < data.length ? data[position++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (position >= data.length) {
+				return -1;
+			}
+			int count = Math.min(len, data.length - position);
+			System.arraycopy(data, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			long count = Math.max(0, Math.min(n, data.length - position));
+			position += (int) count;
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return data.length - position;
+		}
+
+		@Override
+		public long getPosition() {
+			return position;
+		}
+
+		@Override
+		protected void seekHard(long position) {
+			this.position = (int) Math.max(0, Math.min(position, data.length));
+		}
+
+		@Override
+		public boolean canSeekHard() {
+			return true;
+		}
+
+		@Override
+		public List<AudioTrackInfoProvider> getTrackInfoProviders() {
+			return Collections.emptyList();
 		}
 	}
 }
@@ -1,19 +1,34 @@
 package com.github.topi314.lavasrc.ytdlp;
 
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.PersistentHttpStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * A persistent HTTP stream implementation that uses the range parameter instead of HTTP headers for specifying
  * the start position at which to start reading on a new connection.
+ * <p>
+ * With read-ahead enabled, the request for the next range is opened in the background before the current range runs out,
+ * so reading continues without waiting for a new connection at every range boundary.
  */
 public class YoutubePersistentHttpStream extends PersistentHttpStream {
 	private static final Logger log = LoggerFactory.getLogger(YoutubePersistentHttpStream.class);
@@ -21,7 +36,22 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 	// Valid range for requesting without throttling is 0-11862014
 	private static final long BUFFER_SIZE = 11862014;
 
+	public static final int DEFAULT_READ_AHEAD_SIZE = 1024 * 1024;
+
+	private static final ExecutorService readAheadExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("ytdlp-read-ahead"));
+
+	@Nullable
+	private final Supplier<HttpInterface> readAheadInterface;
+	private final int readAheadSize;
+
+	private final byte[] singleByte = new byte[1];
+
 	private long rangeEnd;
+	private boolean contentReceived;
+	@Nullable
+	private ReadAhead readAhead;
+	@Nullable
+	private ReadAhead activeReadAhead;
 
 	/**
 	 * @param httpInterface The HTTP interface to use for requests
@@ -29,7 +59,20 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 	 * @param contentLength The length of the resource in bytes
 	 */
 	public YoutubePersistentHttpStream(HttpInterface httpInterface, URI contentUrl, long contentLength) {
+		this(httpInterface, contentUrl, contentLength, null, 0);
+	}
+
+	/**
+	 * @param httpInterface      The HTTP interface to use for requests
+	 * @param contentUrl         The URL of the resource
+	 * @param contentLength      The length of the resource in bytes
+	 * @param readAheadInterface Provides the HTTP interfaces for the read-ahead requests, which run on another thread
+	 * @param readAheadSize      How many bytes of the next range are buffered in the background, 0 disables read-ahead
+	 */
+	public YoutubePersistentHttpStream(HttpInterface httpInterface, URI contentUrl, long contentLength, @Nullable Supplier<HttpInterface> readAheadInterface, int readAheadSize) {
 		super(httpInterface, contentUrl, contentLength);
+		this.readAheadInterface = readAheadInterface;
+		this.readAheadSize = readAheadInterface == null ? 0 : Math.max(0, readAheadSize);
 	}
 
 	@Override
@@ -45,8 +88,35 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 		}
 	}
 
+	/**
+	 * @return whether any content has been read from the stream, a failure before that usually means the URL is no longer valid
+	 */
+	public boolean hasReceivedContent() {
+		return contentReceived;
+	}
+
+	private boolean isReadAheadEnabled() {
+		return readAheadSize > 0 && contentLength > 0 && !contentUrl.toString().contains("rn=");
+	}
+
+	/**
+	 * The single byte read of {@link PersistentHttpStream} does not know about ranges, it would return -1 at the end of
+	 * every range. Container readers read headers byte by byte, so route it through the range aware read.
+	 */
+	@Override
+	public int read() throws IOException {
+		int result;
+		do {
+			result = internalRead(singleByte, 0, 1, true);
+		} while (result == 0);
+		return result < 0 ? -1 : singleByte[0] & 0xFF;
+	}
+
 	@Override
 	protected int internalRead(byte[] b, int off, int len, boolean attemptReconnect) throws IOException {
+		if (isReadAheadEnabled()) {
+			return readWithReadAhead(b, off, len, attemptReconnect);
+		}
 		connect(false);
 		long nextExpectedPosition = position + len + (len / 2);
 
@@ -64,6 +134,7 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 				result = currentContent.read(b, off, len);
 				if (result >= 0) {
 					position += result;
+					contentReceived |= result > 0;
 					if (position >= rangeEnd && !contentUrl.toString().contains("rn=")) {
 						handleRangeEnd(null, attemptReconnect);
 					}
@@ -108,6 +179,89 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 		}
 	}
 
+	private int readWithReadAhead(byte[] b, int off, int len, boolean attemptReconnect) throws IOException {
+		connect(false);
+
+		try {
+			if (readAhead == null && rangeEnd < contentLength && rangeEnd - position <= readAheadSize) {
+				long start = rangeEnd;
+				long end = Math.min(start + BUFFER_SIZE, contentLength);
+				log.debug("Reading ahead range {}-{}", start, end);
+				readAhead = new ReadAhead(getRangeUrl(start, end), start, end);
+				readAheadExecutor.execute(readAhead);
+			}
+
+			int result = currentContent.read(b, off, len);
+			if (result >= 0) {
+				position += result;
+				contentReceived |= result > 0;
+				return result;
+			}
+			if (position >= contentLength || !attemptReconnect) {
+				return -1;
+			}
+
+			// the current range ran out, continue with the next one
+			if (!switchToReadAhead()) {
+				close();
+			}
+			return readWithReadAhead(b, off, len, false);
+		} catch (IOException e) {
+			handleRangeEnd(e, attemptReconnect);
+			return readWithReadAhead(b, off, len, false);
+		}
+	}
+
+	private boolean switchToReadAhead() throws IOException {
+		var next = readAhead;
+		readAhead = null;
+		if (next == null) {
+			return false;
+		}
+
+		InputStream content;
+		try {
+			content = next.await();
+		} catch (InterruptedException e) {
+			next.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the next range");
+		}
+		if (content == null || position < next.start) {
+			// the read-ahead failed or the server returned less than requested, reconnect at the current position
+			next.cancel();
+			return false;
+		}
+
+		// ranges might overlap by a byte depending on whether the end is inclusive
+		long skip = position - next.start;
+		if (skip > 0 && content.skip(skip) != skip) {
+			next.cancel();
+			return false;
+		}
+
+		if (activeReadAhead != null) {
+			activeReadAhead.cancel();
+		}
+		activeReadAhead = next;
+		currentContent = content;
+		rangeEnd = next.end;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (readAhead != null) {
+			readAhead.cancel();
+			readAhead = null;
+		}
+		if (activeReadAhead != null) {
+			activeReadAhead.cancel();
+			activeReadAhead = null;
+		}
+		super.close();
+	}
+
 	private URI getNextRangeUrl() {
 		rangeEnd = position + BUFFER_SIZE;
 
@@ -115,8 +269,12 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 			rangeEnd = contentLength;
 		}
 
+		return getRangeUrl(position, rangeEnd);
+	}
+
+	private URI getRangeUrl(long start, long end) {
 		try {
-			return new URIBuilder(contentUrl).addParameter("range", position + "-" + rangeEnd).build();
+			return new URIBuilder(contentUrl).addParameter("range", start + "-" + end).build();
 		} catch (URISyntaxException e) {
 			throw new RuntimeException(e);
 		}
@@ -130,6 +288,84 @@ public class YoutubePersistentHttpStream extends PersistentHttpStream {
 		close();
 	}
 
+	/**
+	 * Opens a range request in the background and buffers its beginning.
+	 */
+	private class ReadAhead implements Runnable {
+		private final URI url;
+		private final long start;
+		private final long end;
+		private final CountDownLatch done = new CountDownLatch(1);
+		@Nullable
+		private CloseableHttpResponse response;
+		@Nullable
+		private InputStream content;
+		private boolean cancelled;
+
+		private ReadAhead(URI url, long start, long end) {
+			this.url = url;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public void run() {
+			CloseableHttpResponse response = null;
+			InputStream content = null;
+			try (var httpInterface = readAheadInterface.get()) {
+				response = httpInterface.execute(new HttpGet(url));
+				int statusCode = response.getStatusLine().getStatusCode();
+				if (!HttpClientTools.isSuccessWithContent(statusCode)) {
+					throw new IOException("Read-ahead request failed with status code " + statusCode);
+				}
+				var stream = response.getEntity().getContent();
+				var buffer = stream.readNBytes(readAheadSize);
+				content = new SequenceInputStream(new ByteArrayInputStream(buffer), stream);
+			} catch (Exception e) {
+				log.debug("Failed to read ahead range {}-{}", start, end, e);
+				closeResponse(response);
+				response = null;
+				content = null;
+			}
+
+			synchronized (this) {
+				if (cancelled) {
+					closeResponse(response);
+				} else {
+					this.response = response;
+					this.content = content;
+				}
+			}
+			done.countDown();
+		}
+
+		@Nullable
+		private InputStream await() throws InterruptedException {
+			done.await();
+			synchronized (this) {
+				return cancelled ? null : content;
+			}
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			closeResponse(response);
+			response = null;
+			content = null;
+		}
+
+		private void closeResponse(@Nullable CloseableHttpResponse response) {
+			if (response == null) {
+				return;
+			}
+			try {
+				response.close();
+			} catch (IOException e) {
+				log.debug("Failed to close read-ahead response", e);
+			}
+		}
+	}
+
 	@Override
 	protected boolean useHeadersForRange() {
 		return false;
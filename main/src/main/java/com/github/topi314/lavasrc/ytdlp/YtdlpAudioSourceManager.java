@@ -1,27 +1,36 @@
 package com.github.topi314.lavasrc.ytdlp;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.topi314.lavasrc.ExtendedAudioPlaylist;
 import com.github.topi314.lavasrc.ExtendedAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
 import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpClientTools;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpConfigurable;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterfaceManager;
 import com.sedmelluq.discord.lavaplayer.track.*;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.DataInput;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Pattern;
@@ -34,11 +43,19 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 	private static final Pattern SHORT_URL_PATTERN = Pattern.compile("https?://(?:www\\.|)youtu\\.be/.*");
 
 	private static final Logger log = LoggerFactory.getLogger(YtdlpAudioSourceManager.class);
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final int MAX_ERROR_OUTPUT = 8192;
+	private static final ExecutorService errorOutputReader = Executors.newCachedThreadPool(new DaemonThreadFactory("ytdlp-stderr"));
+
 	private final HttpInterfaceManager httpInterfaceManager;
 	private String path;
 	private int searchLimit;
 	private String[] customLoadArgs;
 	private String[] customPlaybackArgs;
+	@Nullable
+	private YtdlpWorkerPool workerPool;
+	private final YtdlpStreamUrlCache streamUrlCache = new YtdlpStreamUrlCache();
+	private int readAheadSize = YoutubePersistentHttpStream.DEFAULT_READ_AHEAD_SIZE;
 
 	public YtdlpAudioSourceManager() {
 		this("yt-dlp", 0, null, null);
@@ -96,6 +113,36 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 		this.customPlaybackArgs = customPlaybackArgs;
 	}
 
+	public int getReadAheadSize() {
+		return readAheadSize;
+	}
+
+	/**
+	 * Sets how many bytes of the next range are buffered in the background while playing, 0 disables read-ahead.
+	 */
+	public void setReadAheadSize(int readAheadSize) {
+		this.readAheadSize = readAheadSize;
+	}
+
+	public YtdlpStreamUrlCache getStreamUrlCache() {
+		return streamUrlCache;
+	}
+
+	@Nullable
+	public YtdlpWorkerPool getWorkerPool() {
+		return workerPool;
+	}
+
+	/**
+	 * Runs yt-dlp requests on a pool of long-lived workers instead of starting a new process for each of them.
+	 */
+	public void setWorkerPool(@Nullable YtdlpWorkerPool workerPool) {
+		if (this.workerPool != null) {
+			this.workerPool.close();
+		}
+		this.workerPool = workerPool;
+	}
+
 	@NotNull
 	@Override
 	public String getSourceName() {
@@ -117,7 +164,7 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 	}
 
 	@Override
-	public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+	protected AudioItem loadReference(AudioPlayerManager manager, AudioReference reference) {
 		var identifier = reference.identifier;
 		try {
 			if (identifier.startsWith(SEARCH_PREFIX)) {
@@ -134,26 +181,23 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 	}
 
 	public AudioItem parsePlaylist(JsonBrowser json) {
-		var title = json.get("title").text();
-		var entries = json.get("entries").values();
-		if (entries.isEmpty()) {
-			return AudioReference.NO_TRACK;
-		}
-
 		var tracks = new ArrayList<AudioTrack>();
-		for (var entry : entries) {
-			var ieKey = entry.get("ie_key").text();
-			if (ieKey == null || !ieKey.equalsIgnoreCase("youtube")) {
-				continue;
-			}
-
-			entry.put("extractor", json.get("extractor").text());
-			var track = this.parseVideo(entry);
+		for (var entry : json.get("entries").values()) {
+			var track = this.parseEntry(entry);
 			if (track != null) {
 				tracks.add(track);
 			}
 		}
-		if (json.get("extractor").text().equals("youtube:search")) {
+		return this.parsePlaylist(json, tracks);
+	}
+
+	private AudioItem parsePlaylist(JsonBrowser json, List<AudioTrack> tracks) {
+		if (tracks.isEmpty()) {
+			return AudioReference.NO_TRACK;
+		}
+
+		var title = json.get("title").text();
+		if ("youtube:search".equals(json.get("extractor").text())) {
 			return new BasicAudioPlaylist("Youtube Search: " + title, tracks, null, true);
 		}
 
@@ -162,6 +206,15 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 		return new YtdlpAudioPlaylist(title, tracks, ExtendedAudioPlaylist.Type.PLAYLIST, url, thumbnailUrl, null, null);
 	}
 
+	@Nullable
+	private AudioTrack parseEntry(JsonBrowser entry) {
+		var ieKey = entry.get("ie_key").text();
+		if (ieKey == null || !ieKey.equalsIgnoreCase("youtube")) {
+			return null;
+		}
+		return this.parseVideo(entry);
+	}
+
 	public AudioTrack parseVideo(JsonBrowser json) {
 		var title = json.get("title").text();
 		var author = json.get("uploader").text();
@@ -186,13 +239,22 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 	public AudioItem getItem(String identifier) throws IOException {
 		var args = new ArrayList<>(List.of(this.customLoadArgs));
 		args.add(identifier);
-		var process = getProcess(args);
-		var json = getProcessJsonOutput(process);
+		// playlist entries are turned into tracks while yt-dlp is still writing its output
+		var tracks = new ArrayList<AudioTrack>();
+		var json = this.runJson(args, entry -> {
+			var track = this.parseEntry(entry);
+			if (track != null) {
+				tracks.add(track);
+			}
+		});
 
 		var type = json.get("_type").text();
+		if (type == null) {
+			return null;
+		}
 		switch (type) {
 			case "playlist":
-				return this.parsePlaylist(json);
+				return this.parsePlaylist(json, tracks);
 			case "video":
 				json.put("url", json.get("webpage_url").text());
 				return this.parseVideo(json);
@@ -200,6 +262,34 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 		return null;
 	}
 
+	JsonBrowser runJson(List<String> args) throws IOException {
+		return this.runJson(args, null);
+	}
+
+	/**
+	 * Runs yt-dlp with the given arguments and returns its JSON output, using the worker pool if one is configured.
+	 *
+	 * @param entryConsumer receives the playlist entries one by one, they are left out of the returned object if it is set
+	 */
+	JsonBrowser runJson(List<String> args, @Nullable Consumer<JsonBrowser> entryConsumer) throws IOException {
+		var workerPool = this.workerPool;
+		if (workerPool != null && workerPool.isAvailable()) {
+			JsonBrowser json = null;
+			try {
+				json = workerPool.execute(args);
+			} catch (IOException e) {
+				log.warn("yt-dlp worker failed, retrying with a new yt-dlp process", e);
+			}
+			if (json != null) {
+				if (entryConsumer != null) {
+					json.get("entries").values().forEach(entryConsumer);
+				}
+				return json;
+			}
+		}
+		return this.getProcessJsonOutput(this.getProcess(args), entryConsumer);
+	}
+
 	Process getProcess(List<String> args) {
 		var argList = new ArrayList<String>();
 		argList.add(this.path);
@@ -207,7 +297,6 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 
 		log.debug("Starting yt-dlp with args: {}", argList);
 		var processBuilder = new ProcessBuilder(argList);
-		processBuilder.redirectErrorStream(true);
 
 		try {
 			return processBuilder.start();
@@ -218,29 +307,91 @@ public class YtdlpAudioSourceManager extends ExtendedAudioSourceManager implemen
 	}
 
 	JsonBrowser getProcessJsonOutput(Process process) throws IOException {
-		try (var stream = new BufferedInputStream(process.getInputStream())) {
-			var data = IOUtils.toString(stream, StandardCharsets.UTF_8);
-			log.debug("yt-dlp process output: {}", data);
-			int exitCode;
-			try {
-				exitCode = process.waitFor();
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				throw new IOException("yt-dlp process was interrupted", e);
+		return this.getProcessJsonOutput(process, null);
+	}
+
+	/**
+	 * Parses the JSON output of a yt-dlp process while it is being written.
+	 * stderr is read separately and only used for the error message if yt-dlp fails.
+	 */
+	JsonBrowser getProcessJsonOutput(Process process, @Nullable Consumer<JsonBrowser> entryConsumer) throws IOException {
+		var errorOutput = CompletableFuture.supplyAsync(() -> readErrorOutput(process), errorOutputReader);
+
+		JsonBrowser json = null;
+		IOException parseException = null;
+		try (var parser = MAPPER.getFactory().createParser(process.getInputStream())) {
+			json = readJsonOutput(parser, entryConsumer);
+		} catch (IOException e) {
+			parseException = e;
+		}
+
+		int exitCode;
+		try {
+			if (parseException != null && !process.waitFor(1, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
 			}
-			if (exitCode != 0) {
-				throw new RuntimeException("Failed to retrieve item, error: " + data);
+			exitCode = process.waitFor();
+		} catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+			throw new IOException("yt-dlp process was interrupted", e);
+		}
+		if (exitCode != 0) {
+			throw new RuntimeException("Failed to retrieve item, error: " + errorOutput.join());
+		}
+		if (parseException != null) {
+			throw new IOException("Failed to parse yt-dlp output as JSON", parseException);
+		}
+		log.debug("yt-dlp process finished");
+		return json;
+	}
+
+	private static JsonBrowser readJsonOutput(JsonParser parser, @Nullable Consumer<JsonBrowser> entryConsumer) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new IOException("Expected a JSON object");
+		}
+		var root = MAPPER.createObjectNode();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			var name = parser.getCurrentName();
+			var token = parser.nextToken();
+			if (entryConsumer != null && token == JsonToken.START_ARRAY && name.equals("entries")) {
+				// only a single entry is kept in memory at a time
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					JsonNode entry = parser.readValueAsTree();
+					if (entry != null && entry.isObject()) {
+						entryConsumer.accept(new JsonBrowser(entry));
+					}
+				}
+				continue;
 			}
-			try {
-				return JsonBrowser.parse(data);
-			} catch (IOException e) {
-				throw new IOException("Failed to parse yt-dlp output as JSON: " + data, e);
+			root.set(name, parser.readValueAsTree());
+		}
+		return new JsonBrowser(root);
+	}
+
+	private static String readErrorOutput(Process process) {
+		try (var reader = new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8)) {
+			// yt-dlp only writes warnings and errors to stderr, only the end of it is kept
+			var output = new StringBuilder();
+			var buffer = new char[1024];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				output.append(buffer, 0, read);
+				if (output.length() > MAX_ERROR_OUTPUT * 2) {
+					output.delete(0, output.length() - MAX_ERROR_OUTPUT);
+				}
 			}
+			return output.length() > MAX_ERROR_OUTPUT ? output.substring(output.length() - MAX_ERROR_OUTPUT) : output.toString();
+		} catch (IOException e) {
+			return "failed to read yt-dlp error output: " + e.getMessage();
 		}
 	}
 
 	@Override
 	public void shutdown() {
+		if (this.workerPool != null) {
+			this.workerPool.close();
+		}
 		try {
 			this.httpInterfaceManager.close();
 		} catch (IOException e) {
@@ -23,6 +23,7 @@ public class YtdlpAudioTrack extends ExtendedAudioTrack {
 	private static final Logger log = LoggerFactory.getLogger(YtdlpAudioTrack.class);
 
 	private final YtdlpAudioSourceManager sourceManager;
+	private boolean contentReceived;
 
 	public YtdlpAudioTrack(AudioTrackInfo trackInfo, YtdlpAudioSourceManager sourceManager) {
 		this(trackInfo, null, null, null, null, null, false, sourceManager);
@@ -36,31 +37,75 @@ public class YtdlpAudioTrack extends ExtendedAudioTrack {
 	private JsonBrowser getStreamUrl(String url) throws IOException {
 		var args = new ArrayList<>(List.of(this.sourceManager.getCustomPlaybackArgs()));
 		args.add(url);
-		var process = this.sourceManager.getProcess(args);
-		return this.sourceManager.getProcessJsonOutput(process);
+		return this.sourceManager.runJson(args);
+	}
+
+	private YtdlpStreamUrlCache.StreamInfo resolveStream() throws IOException {
+		var streamJson = this.getStreamUrl(trackInfo.uri);
+		return new YtdlpStreamUrlCache.StreamInfo(
+			streamJson.get("url").text(),
+			streamJson.get("ext").text(),
+			streamJson.get("filesize").asLong(Units.CONTENT_LENGTH_UNKNOWN)
+		);
 	}
 
 	@Override
 	public void process(LocalAudioTrackExecutor executor) throws Exception {
-		var streamJson = this.getStreamUrl(trackInfo.uri);
+		var cache = this.sourceManager.getStreamUrlCache();
+		var args = this.sourceManager.getCustomPlaybackArgs();
+		// live stream urls point to the current segments and can't be reused
+		YtdlpStreamUrlCache.StreamInfo cachedStream = trackInfo.isStream ? null : cache.get(trackInfo.identifier, args, trackInfo.length);
+		var stream = cachedStream;
+		if (stream == null) {
+			stream = this.resolveStream();
+			if (!trackInfo.isStream) {
+				cache.put(trackInfo.identifier, args, stream);
+			}
+		} else {
+			log.debug("Using cached stream url for {}", trackInfo.identifier);
+		}
 
-		var streamUrl = new URI(streamJson.get("url").text());
-		var format = streamJson.get("ext").text();
-		var contentLength = streamJson.get("filesize").asLong(Units.CONTENT_LENGTH_UNKNOWN);
+		try {
+			this.process(executor, stream);
+		} catch (Exception e) {
+			if (cachedStream == null) {
+				throw e;
+			}
+			cache.invalidate(trackInfo.identifier, args);
+			if (this.contentReceived) {
+				throw e;
+			}
+
+			// the cached url most likely expired, resolve a fresh one and try once more
+			log.debug("Cached stream url for {} failed, resolving a new one", trackInfo.identifier, e);
+			stream = this.resolveStream();
+			cache.put(trackInfo.identifier, args, stream);
+			this.process(executor, stream);
+		}
+	}
+
+	private void process(LocalAudioTrackExecutor executor, YtdlpStreamUrlCache.StreamInfo streamInfo) throws Exception {
+		var streamUrl = new URI(streamInfo.url);
+		var format = streamInfo.format;
+		var contentLength = streamInfo.contentLength;
 		try (var httpInterface = this.sourceManager.getHttpInterface()) {
 			if (trackInfo.isStream) {
 				if (format.equals("webm")) {
 					throw new FriendlyException("YouTube WebM streams are currently not supported.", FriendlyException.Severity.COMMON, null);
 				}
-				processDelegate(new YoutubeMpegStreamAudioTrack(trackInfo, httpInterface, streamUrl), executor);
+				processDelegate(new YoutubeMpegStreamAudioTrack(trackInfo, httpInterface, streamUrl, this.sourceManager::getHttpInterface), executor);
 				return;
 			}
 
-			try (var stream = new YoutubePersistentHttpStream(httpInterface, streamUrl, contentLength)) {
-				if (format.equals("webm")) {
-					processDelegate(new MatroskaAudioTrack(this.trackInfo, stream), executor);
-				} else {
-					processDelegate(new MpegAudioTrack(this.trackInfo, stream), executor);
+			try (var stream = new YoutubePersistentHttpStream(httpInterface, streamUrl, contentLength, this.sourceManager::getHttpInterface, this.sourceManager.getReadAheadSize())) {
+				try {
+					if (format.equals("webm")) {
+						processDelegate(new MatroskaAudioTrack(this.trackInfo, stream), executor);
+					} else {
+						processDelegate(new MpegAudioTrack(this.trackInfo, stream), executor);
+					}
+				} finally {
+					this.contentReceived |= stream.hasReceivedContent();
 				}
 			}
 		}
@@ -0,0 +1,113 @@
+package com.github.topi314.lavasrc.ytdlp;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU cache of the stream urls resolved by yt-dlp, keyed by video id and playback arguments.
+ * Entries are kept until shortly before the signed url expires, so replays of the same video don't need to run yt-dlp again.
+ */
+public class YtdlpStreamUrlCache {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final Pattern EXPIRE_PATTERN = Pattern.compile("[?&/]expire[=/](\\d+)");
+	private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(5);
+	private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(30);
+
+	private final Map<String, StreamInfo> entries;
+
+	public YtdlpStreamUrlCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public YtdlpStreamUrlCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Max size must be greater than 0");
+		}
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, StreamInfo> eldest) {
+				return this.size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param length the length of the track in milliseconds, the url has to stay valid for the whole playback
+	 * @return the cached stream or null if there is none which is valid long enough
+	 */
+	@Nullable
+	public StreamInfo get(String videoId, String[] args, long length) {
+		var key = key(videoId, args);
+		synchronized (this.entries) {
+			var stream = this.entries.get(key);
+			if (stream == null) {
+				return null;
+			}
+			if (stream.expiresAt < System.currentTimeMillis() + Math.max(0, length)) {
+				this.entries.remove(key);
+				return null;
+			}
+			return stream;
+		}
+	}
+
+	public void put(String videoId, String[] args, StreamInfo stream) {
+		if (stream.expiresAt <= System.currentTimeMillis()) {
+			return;
+		}
+		synchronized (this.entries) {
+			this.entries.put(key(videoId, args), stream);
+		}
+	}
+
+	public void invalidate(String videoId, String[] args) {
+		synchronized (this.entries) {
+			this.entries.remove(key(videoId, args));
+		}
+	}
+
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	private static String key(String videoId, String[] args) {
+		return videoId + "\n" + String.join("\n", args);
+	}
+
+	/**
+	 * @return when the signed url expires minus a safety margin, or a default max age if the url doesn't say
+	 */
+	static long getExpiresAt(String url) {
+		var matcher = EXPIRE_PATTERN.matcher(url);
+		if (matcher.find()) {
+			try {
+				return Long.parseLong(matcher.group(1)) * 1000 - EXPIRY_MARGIN.toMillis();
+			} catch (NumberFormatException ignored) {
+			}
+		}
+		return System.currentTimeMillis() + DEFAULT_MAX_AGE.toMillis();
+	}
+
+	public static class StreamInfo {
+		public final String url;
+		public final String format;
+		public final long contentLength;
+		private final long expiresAt;
+
+		public StreamInfo(String url, String format, long contentLength) {
+			this.url = url;
+			this.format = format;
+			this.contentLength = contentLength;
+			this.expiresAt = getExpiresAt(url);
+		}
+	}
+
+}
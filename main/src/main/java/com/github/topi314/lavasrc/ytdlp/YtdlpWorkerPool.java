@@ -0,0 +1,217 @@
+package com.github.topi314.lavasrc.ytdlp;
+
+import com.sedmelluq.discord.lavaplayer.tools.DaemonThreadFactory;
+import com.sedmelluq.discord.lavaplayer.tools.JsonBrowser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of long-lived yt-dlp processes.
+ * Each worker runs a small bundled Python driver which imports yt-dlp once and then handles requests over stdin/stdout,
+ * which avoids the interpreter startup and extractor initialization of a new yt-dlp process for every request.
+ * This requires a Python interpreter with the yt-dlp module installed.
+ */
+public class YtdlpWorkerPool implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(YtdlpWorkerPool.class);
+
+	private static final String DRIVER_RESOURCE = "ytdlp_worker.py";
+	private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("ytdlp-watchdog"));
+
+	public static final int DEFAULT_MAX_WORKERS = 4;
+	public static final int DEFAULT_MAX_JOBS = 100;
+	public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+	private final String pythonPath;
+	private final int maxJobs;
+	private final Duration timeout;
+	private final Semaphore permits;
+	private final Deque<Worker> idleWorkers = new ArrayDeque<>();
+	private Path driver;
+	private volatile boolean disabled;
+	private volatile boolean closed;
+
+	/**
+	 * @param pythonPath the Python interpreter which has the yt-dlp module installed
+	 * @param maxWorkers how many requests can run at the same time
+	 * @param maxJobs    after how many requests a worker is replaced by a new one
+	 * @param timeout    how long a single request may take before its worker is killed
+	 */
+	public YtdlpWorkerPool(String pythonPath, int maxWorkers, int maxJobs, Duration timeout) {
+		this.pythonPath = pythonPath;
+		this.maxJobs = Math.max(1, maxJobs);
+		this.timeout = timeout;
+		this.permits = new Semaphore(Math.max(1, maxWorkers), true);
+	}
+
+	/**
+	 * @return false once the workers failed to start, callers should fall back to one-shot yt-dlp processes
+	 */
+	public boolean isAvailable() {
+		return !this.disabled && !this.closed;
+	}
+
+	/**
+	 * Runs yt-dlp with the given arguments, equivalent to the output of "yt-dlp -J".
+	 *
+	 * @throws IOException      if the worker failed, timed out or could not be started
+	 * @throws RuntimeException if yt-dlp reported an error for the request
+	 */
+	public JsonBrowser execute(List<String> args) throws IOException {
+		try {
+			if (!this.permits.tryAcquire(this.timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				throw new IOException("Timed out waiting for a free yt-dlp worker");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a yt-dlp worker", e);
+		}
+
+		Worker worker = null;
+		var reusable = false;
+		try {
+			synchronized (this.idleWorkers) {
+				worker = this.idleWorkers.poll();
+			}
+			if (worker == null) {
+				worker = this.startWorker();
+			}
+
+			JsonBrowser response;
+			try {
+				response = worker.execute(args);
+			} catch (IOException e) {
+				if (worker.jobs == 0 && !worker.timedOut) {
+					// a fresh worker which died right away, most likely python or the yt-dlp module is missing
+					log.warn("yt-dlp worker exited unexpectedly, falling back to one-shot yt-dlp processes", e);
+					this.disabled = true;
+				}
+				throw e;
+			}
+			worker.jobs++;
+			reusable = worker.jobs < this.maxJobs;
+
+			var error = response.get("error").text();
+			if (error != null) {
+				throw new RuntimeException("Failed to retrieve item, error: " + error);
+			}
+			return response.get("result");
+		} finally {
+			if (worker != null) {
+				if (reusable && !this.closed) {
+					synchronized (this.idleWorkers) {
+						this.idleWorkers.push(worker);
+					}
+				} else {
+					worker.destroy();
+				}
+			}
+			this.permits.release();
+		}
+	}
+
+	private Worker startWorker() throws IOException {
+		var processBuilder = new ProcessBuilder(this.pythonPath, this.getDriver().toString());
+		processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+		log.debug("Starting yt-dlp worker: {}", processBuilder.command());
+		try {
+			return new Worker(processBuilder.start());
+		} catch (IOException e) {
+			this.disabled = true;
+			throw new IOException("Failed to start yt-dlp worker", e);
+		}
+	}
+
+	private synchronized Path getDriver() throws IOException {
+		if (this.driver == null) {
+			var driver = Files.createTempFile("lavasrc-ytdlp-worker", ".py");
+			driver.toFile().deleteOnExit();
+			try (var in = YtdlpWorkerPool.class.getResourceAsStream(DRIVER_RESOURCE)) {
+				if (in == null) {
+					throw new IOException("Missing yt-dlp worker driver resource");
+				}
+				Files.copy(in, driver, StandardCopyOption.REPLACE_EXISTING);
+			}
+			this.driver = driver;
+		}
+		return this.driver;
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		List<Worker> workers;
+		synchronized (this.idleWorkers) {
+			workers = new ArrayList<>(this.idleWorkers);
+			this.idleWorkers.clear();
+		}
+		workers.forEach(Worker::destroy);
+	}
+
+	private class Worker {
+		private final Process process;
+		private final BufferedWriter writer;
+		private final BufferedReader reader;
+		private int jobs;
+		private volatile boolean timedOut;
+
+		private Worker(Process process) {
+			this.process = process;
+			this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+			this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+		}
+
+		private JsonBrowser execute(List<String> args) throws IOException {
+			var request = JsonBrowser.newMap();
+			request.put("args", args);
+
+			var kill = watchdog.schedule(() -> {
+				this.timedOut = true;
+				this.process.destroyForcibly();
+			}, timeout.toMillis(), TimeUnit.MILLISECONDS);
+			try {
+				log.debug("Running yt-dlp worker with args: {}", args);
+				this.writer.write(request.format());
+				this.writer.write('\n');
+				this.writer.flush();
+
+				var line = this.reader.readLine();
+				if (line == null) {
+					throw new IOException(this.timedOut ? "yt-dlp worker timed out" : "yt-dlp worker exited");
+				}
+				return JsonBrowser.parse(line);
+			} catch (IOException e) {
+				if (this.timedOut) {
+					throw new IOException("yt-dlp worker timed out", e);
+				}
+				throw e;
+			} finally {
+				kill.cancel(false);
+			}
+		}
+
+		private void destroy() {
+			this.process.destroy();
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+# Long-lived yt-dlp worker used by YtdlpWorkerPool.
+# Reads one JSON request per line from stdin: {"args": [...yt-dlp command line arguments...]}
+# and writes one JSON response per line to stdout: {"result": {...}} or {"error": "..."}.
+# The result is the same object "yt-dlp -J" would print.
+import json
+import sys
+
+import yt_dlp
+
+
+def handle(args):
+    _, _, urls, ydl_opts = yt_dlp.parse_options(args)
+    if not urls:
+        raise ValueError("no url given")
+    with yt_dlp.YoutubeDL(ydl_opts) as ydl:
+        info = ydl.extract_info(urls[0], download=False)
+        return ydl.sanitize_info(info)
+
+
+def main():
+    out = sys.stdout
+    # anything yt-dlp prints goes to stderr, stdout only carries responses
+    sys.stdout = sys.stderr
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            response = {"result": handle(json.loads(line)["args"])}
+        except KeyboardInterrupt:
+            raise
+        except BaseException as e:
+            # argument errors raise SystemExit, extraction errors raise DownloadError
+            response = {"error": str(e) or type(e).__name__}
+        out.write(json.dumps(response) + "\n")
+        out.flush()
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,190 @@
+package com.github.topi314.lavasrc.ytdlp;
+
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpContextFilter;
+import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YoutubePersistentHttpStreamTest {
+
+	// a bit more than one range of the stream, so there is exactly one range boundary
+	private static final long CONTENT_LENGTH = 11862014L + 4096;
+	private static final long BOUNDARY = 11862014L;
+	private static final URI URL = URI.create("https://example.com/videoplayback?id=1");
+
+	@Test
+	void singleByteReadsCrossRangeBoundary() throws IOException {
+		var server = new RangeServer();
+		try (var stream = new YoutubePersistentHttpStream(server.createInterface(), URL, CONTENT_LENGTH)) {
+			assertReadsAcrossBoundary(stream);
+		}
+		assertTrue(server.requests.get() >= 2, "the second range was never requested");
+	}
+
+	@Test
+	void singleByteReadsCrossRangeBoundaryWithReadAhead() throws IOException {
+		var server = new RangeServer();
+		try (var stream = new YoutubePersistentHttpStream(server.createInterface(), URL, CONTENT_LENGTH, server::createInterface, 1024)) {
+			assertReadsAcrossBoundary(stream);
+		}
+		assertTrue(server.requests.get() >= 2, "the second range was never requested");
+	}
+
+	private static void assertReadsAcrossBoundary(YoutubePersistentHttpStream stream) throws IOException {
+		// get close to the boundary with bulk reads, then continue byte by byte like the container readers do
+		var buffer = new byte[64 * 1024];
+		long position = 0;
+		while (position < BOUNDARY - 64) {
+			int read = stream.read(buffer, 0, (int) Math.min(buffer.length, BOUNDARY - 64 - position));
+			// 0 means the stream moved on to the next range without reading anything
+			assertTrue(read >= 0, "unexpected end of stream at " + position);
+			for (int i = 0; i < read; i++) {
+				assertEquals(valueAt(position + i), buffer[i] & 0xFF, "wrong byte at " + (position + i));
+			}
+			position += read;
+		}
+
+		while (position < BOUNDARY + 256) {
+			assertEquals(valueAt(position), stream.read(), "wrong byte at " + position);
+			position++;
+		}
+		assertEquals(position, stream.getPosition());
+
+		while (position < CONTENT_LENGTH) {
+			assertEquals(valueAt(position), stream.read(), "wrong byte at " + position);
+			position++;
+		}
+		assertEquals(-1, stream.read());
+	}
+
+	private static int valueAt(long position) {
+		return (int) ((position * 31 + 7) & 0xFF);
+	}
+
+	/**
+	 * Serves the "range" query parameter like YouTube does, with an inclusive end.
+	 */
+	private static class RangeServer extends CloseableHttpClient {
+		private static final Pattern RANGE_PATTERN = Pattern.compile("[?&]range=(\\d+)-(\\d+)");
+
+		private final AtomicInteger requests = new AtomicInteger();
+
+		private HttpInterface createInterface() {
+			return new HttpInterface(this, HttpClientContext.create(), false, new NoopFilter());
+		}
+
+		@Override
+		protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) {
+			requests.incrementAndGet();
+			var matcher = RANGE_PATTERN.matcher(((HttpUriRequest) request).getURI().toString());
+			long start = 0;
+			long end = CONTENT_LENGTH;
+			if (matcher.find()) {
+				start = Long.parseLong(matcher.group(1));
+				end = Math.min(Long.parseLong(matcher.group(2)) + 1, CONTENT_LENGTH);
+			}
+			var response = new Response();
+			response.setEntity(new InputStreamEntity(new GeneratedContent(start, end), end - start));
+			return response;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public HttpParams getParams() {
+			return new BasicHttpParams();
+		}
+
+		@Override
+		@SuppressWarnings("deprecation")
+		public ClientConnectionManager getConnectionManager() {
+			return null;
+		}
+	}
+
+	private static class Response extends BasicHttpResponse implements CloseableHttpResponse {
+		private Response() {
+			super(HttpVersion.HTTP_1_1, 200, "OK");
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static class GeneratedContent extends InputStream {
+		private long position;
+		private final long end;
+
+		private GeneratedContent(long start, long end) {
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() {
+			return position < end ? valueAt(position++) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (position >= end) {
+				return -1;
+			}
+			int count = (int) Math.min(len, end - position);
+			for (int i = 0; i < count; i++) {
+				b[off + i] = (byte) valueAt(position++);
+			}
+			return count;
+		}
+	}
+
+	private static class NoopFilter implements HttpContextFilter {
+		@Override
+		public void onContextOpen(HttpClientContext context) {
+		}
+
+		@Override
+		public void onContextClose(HttpClientContext context) {
+		}
+
+		@Override
+		public void onRequest(HttpClientContext context, HttpUriRequest request, boolean isRepetition) {
+		}
+
+		@Override
+		public boolean onRequestResponse(HttpClientContext context, HttpUriRequest request, HttpResponse response) {
+			return false;
+		}
+
+		@Override
+		public boolean onRequestException(HttpClientContext context, HttpUriRequest request, Throwable error) {
+			return false;
+		}
+	}
+}
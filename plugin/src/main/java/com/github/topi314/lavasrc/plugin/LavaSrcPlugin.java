@@ -4,6 +4,8 @@ import com.github.topi314.lavalyrics.LyricsManager;
 import com.github.topi314.lavalyrics.api.LyricsManagerConfiguration;
 import com.github.topi314.lavasearch.SearchManager;
 import com.github.topi314.lavasearch.api.SearchManagerConfiguration;
+import com.github.topi314.lavasrc.HttpResponseCache;
+import com.github.topi314.lavasrc.LavaSrcTools;
 import com.github.topi314.lavasrc.applemusic.AppleMusicSourceManager;
 import com.github.topi314.lavasrc.deezer.DeezerAudioSourceManager;
 import com.github.topi314.lavasrc.deezer.DeezerAudioTrack;
@@ -12,6 +14,9 @@ import com.github.topi314.lavasrc.gaana.GaanaAudioSourceManager;
 import com.github.topi314.lavasrc.jiosaavn.JioSaavnAudioSourceManager;
 import com.github.topi314.lavasrc.lrclib.LrcLibLyricsManager;
 import com.github.topi314.lavasrc.mirror.DefaultMirroringAudioTrackResolver;
+import com.github.topi314.lavasrc.mirror.MirroringAudioTrackCache;
+import com.github.topi314.lavasrc.mirror.MirroringAudioTrackIndex;
+import com.github.topi314.lavasrc.mirror.MirroringAudioTrackPreloader;
 import com.github.topi314.lavasrc.plugin.config.*;
 import com.github.topi314.lavasrc.plugin.service.ProxyConfigurationService;
 import com.github.topi314.lavasrc.protocol.Config;
@@ -22,6 +27,7 @@ import com.github.topi314.lavasrc.vkmusic.VkMusicSourceManager;
 import com.github.topi314.lavasrc.yandexmusic.YandexMusicSourceManager;
 import com.github.topi314.lavasrc.youtube.YoutubeSearchManager;
 import com.github.topi314.lavasrc.ytdlp.YtdlpAudioSourceManager;
+import com.github.topi314.lavasrc.ytdlp.YtdlpWorkerPool;
 import com.github.topi314.lavasrc.pandora.PandoraSourceManager;
 import com.github.topi314.lavasrc.audiomack.AudiomackAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
@@ -29,14 +35,19 @@ import dev.arbjerg.lavalink.api.AudioPlayerManagerConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
 @Service
 @RestController
-public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchManagerConfiguration, LyricsManagerConfiguration {
+public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchManagerConfiguration, LyricsManagerConfiguration, DisposableBean {
 
 	private static final Logger log = LoggerFactory.getLogger(LavaSrcPlugin.class);
 
@@ -58,6 +69,8 @@ public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchMan
 	private PandoraSourceManager pandora;
 	private AudiomackAudioSourceManager audiomack;
 	private LrcLibLyricsManager lrcLib;
+	private MirroringAudioTrackIndex mirrorIndex;
+	private MirroringAudioTrackPreloader mirrorPreloader;
 
 	public LavaSrcPlugin(
 		LavaSrcConfig pluginConfig,
@@ -83,29 +96,69 @@ public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchMan
 		this.sourcesConfig = sourcesConfig;
 		this.lyricsSourcesConfig = lyricsSourcesConfig;
 
+		var responseCacheConfig = pluginConfig.getResponseCache();
+		if (responseCacheConfig != null && responseCacheConfig.isEnabled()) {
+			var policies = HttpResponseCache.defaultPolicies();
+			if (responseCacheConfig.getPolicies() != null && !responseCacheConfig.getPolicies().isEmpty()) {
+				policies = responseCacheConfig.getPolicies().stream()
+					.map(policy -> new HttpResponseCache.Policy(policy.getPattern(), Duration.ofSeconds(policy.getTtl())))
+					.collect(Collectors.toList());
+			}
+			LavaSrcTools.setResponseCache(new HttpResponseCache(policies, responseCacheConfig.getMaxSize(), Duration.ofSeconds(responseCacheConfig.getStaleIfError())));
+		}
+
+		MirroringAudioTrackCache mirrorCache = null;
+		var mirrorCacheConfig = pluginConfig.getMirrorCache();
+		if (mirrorCacheConfig != null && mirrorCacheConfig.isEnabled()) {
+			mirrorCache = new MirroringAudioTrackCache(mirrorCacheConfig.getMaxSize(), Duration.ofSeconds(mirrorCacheConfig.getTtl()), Duration.ofSeconds(mirrorCacheConfig.getNegativeTtl()));
+		}
+		var mirroringAudioTrackResolver = new DefaultMirroringAudioTrackResolver(pluginConfig.getProviders(), mirrorCache);
+		var mirrorRaceConfig = pluginConfig.getMirrorRace();
+		if (mirrorRaceConfig != null && mirrorRaceConfig.getProviders() > 1) {
+			mirroringAudioTrackResolver.setRaceProviders(mirrorRaceConfig.getProviders());
+			mirroringAudioTrackResolver.setRaceGracePeriod(mirrorRaceConfig.getGracePeriod());
+		}
+		var mirrorIndexConfig = pluginConfig.getMirrorIndex();
+		if (mirrorIndexConfig != null && mirrorIndexConfig.isEnabled()) {
+			this.mirrorIndex = new MirroringAudioTrackIndex(Path.of(mirrorIndexConfig.getPath()), Duration.ofSeconds(mirrorIndexConfig.getMaxAge()));
+			mirroringAudioTrackResolver.setIndex(this.mirrorIndex);
+		}
+		MirroringAudioTrackPreloader mirrorPreloader = null;
+		var mirrorPreloadConfig = pluginConfig.getMirrorPreload();
+		if (mirrorPreloadConfig != null && mirrorPreloadConfig.isEnabled()) {
+			mirrorPreloader = new MirroringAudioTrackPreloader(mirrorPreloadConfig.getThreads(), mirrorPreloadConfig.getMaxEntries(), Duration.ofSeconds(mirrorPreloadConfig.getTtl()), mirrorPreloadConfig.getResolutionsPerSecond());
+			mirrorPreloader.setPlaylistLimit(mirrorPreloadConfig.getPlaylistLimit());
+		}
+		this.mirrorPreloader = mirrorPreloader;
+
 		if (sourcesConfig.isSpotify() || lyricsSourcesConfig.isSpotify()) {
-			this.spotify = new SpotifySourceManager(spotifyConfig.getClientId(), spotifyConfig.getClientSecret(), spotifyConfig.isPreferAnonymousToken(), spotifyConfig.getCustomTokenEndpoint(), spotifyConfig.getSpDc(), spotifyConfig.getCountryCode(), unused -> manager, new DefaultMirroringAudioTrackResolver(pluginConfig.getProviders()));
+			this.spotify = new SpotifySourceManager(spotifyConfig.getClientId(), spotifyConfig.getClientSecret(), spotifyConfig.isPreferAnonymousToken(), spotifyConfig.getCustomTokenEndpoint(), spotifyConfig.getSpDc(), spotifyConfig.getCountryCode(), unused -> manager, mirroringAudioTrackResolver);
 			if (spotifyConfig.getPlaylistLoadLimit() > 0) {
 				this.spotify.setPlaylistPageLimit(spotifyConfig.getPlaylistLoadLimit());
 			}
 			if (spotifyConfig.getAlbumLoadLimit() > 0) {
 				this.spotify.setAlbumPageLimit(spotifyConfig.getAlbumLoadLimit());
 			}
+			if (spotifyConfig.getPageConcurrency() > 0) {
+				this.spotify.setPageConcurrency(spotifyConfig.getPageConcurrency());
+			}
 			if (!spotifyConfig.isResolveArtistsInSearch()) {
 				this.spotify.setResolveArtistsInSearch(spotifyConfig.isResolveArtistsInSearch());
 			}
 			if (spotifyConfig.isLocalFiles()) {
 				this.spotify.setLocalFiles(spotifyConfig.isLocalFiles());
 			}
+			this.spotify.setPreloader(mirrorPreloader);
 		}
 		if (sourcesConfig.isAppleMusic()) {
-			this.appleMusic = new AppleMusicSourceManager(pluginConfig.getProviders(), appleMusicConfig.getMediaAPIToken(), appleMusicConfig.getCountryCode(), unused -> manager);
+			this.appleMusic = new AppleMusicSourceManager(appleMusicConfig.getMediaAPIToken(), appleMusicConfig.getCountryCode(), unused -> manager, mirroringAudioTrackResolver);
 			if (appleMusicConfig.getPlaylistLoadLimit() > 0) {
 				appleMusic.setPlaylistPageLimit(appleMusicConfig.getPlaylistLoadLimit());
 			}
 			if (appleMusicConfig.getAlbumLoadLimit() > 0) {
 				appleMusic.setAlbumPageLimit(appleMusicConfig.getAlbumLoadLimit());
 			}
+			this.appleMusic.setPreloader(mirrorPreloader);
 		}
 		if (sourcesConfig.isDeezer() || lyricsSourcesConfig.isDeezer()) {
 			this.deezer = new DeezerAudioSourceManager(deezerConfig.getMasterDecryptionKey(), deezerConfig.getArl(), deezerConfig.getFormats());
@@ -168,16 +221,22 @@ public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchMan
 			}
 		}
 		if (sourcesConfig.isTidal()) {
-			this.tidal = new TidalSourceManager(pluginConfig.getProviders(), tidalConfig.getCountryCode(), unused -> this.manager, tidalConfig.getToken());
+			this.tidal = new TidalSourceManager(tidalConfig.getCountryCode(), unused -> this.manager, mirroringAudioTrackResolver, tidalConfig.getToken());
 			if (tidalConfig.getSearchLimit() > 0) {
 				this.tidal.setSearchLimit(tidalConfig.getSearchLimit());
 			}
+			this.tidal.setPreloader(mirrorPreloader);
 		}
 		if (sourcesConfig.isQobuz()) {
 			this.qobuz = new QobuzAudioSourceManager(qobuzConfig.getUserOauthToken(), qobuzConfig.getAppId(), qobuzConfig.getAppSecret());
 		}
 		if (sourcesConfig.isYtdlp()) {
 			this.ytdlp = new YtdlpAudioSourceManager(ytdlpConfig.getPath(), ytdlpConfig.getSearchLimit(), ytdlpConfig.getCustomLoadArgs(), ytdlpConfig.getCustomPlaybackArgs());
+			this.ytdlp.setReadAheadSize(ytdlpConfig.getReadAheadSize());
+			var workersConfig = ytdlpConfig.getWorkers();
+			if (workersConfig != null && workersConfig.isEnabled()) {
+				this.ytdlp.setWorkerPool(new YtdlpWorkerPool(workersConfig.getPythonPath(), workersConfig.getMaxWorkers(), workersConfig.getMaxJobs(), Duration.ofSeconds(workersConfig.getTimeout())));
+			}
 		}
 
 		if (lyricsSourcesConfig.isLrcLib()) {
@@ -192,14 +251,16 @@ public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchMan
 
 		if (sourcesConfig.isGaana()) {
 			this.gaana = new GaanaAudioSourceManager(gaanaConfig.getSearchLimit());
+			this.gaana.setDownloadConcurrency(gaanaConfig.getDownloadConcurrency());
 			proxyConfigurationService.configure(this.gaana, gaanaConfig.getProxy());
 		}
 
 		if (sourcesConfig.isPandora()) {
-			this.pandora = new PandoraSourceManager(pluginConfig.getProviders(), pandoraConfig.getCsrfToken(), unused -> this.manager);
+			this.pandora = new PandoraSourceManager(pandoraConfig.getCsrfToken(), unused -> this.manager, mirroringAudioTrackResolver, 6);
 			if (pandoraConfig.getSearchLimit() > 0) {
 				this.pandora.setSearchLimit(pandoraConfig.getSearchLimit());
 			}
+			this.pandora.setPreloader(mirrorPreloader);
 		}
 
 		if (sourcesConfig.isAudiomack()) {
@@ -347,6 +408,17 @@ public class LavaSrcPlugin implements AudioPlayerManagerConfiguration, SearchMan
 		return manager;
 	}
 
+	@Override
+	public void destroy() throws Exception {
+		if (this.mirrorPreloader != null) {
+			this.mirrorPreloader.shutdown();
+		}
+		if (this.mirrorIndex != null) {
+			// flushes queued writes and the memory-mapped log to disk
+			this.mirrorIndex.close();
+		}
+	}
+
 	@PatchMapping("/v4/lavasrc/config")
 	public void updateConfig(@RequestBody Config config) {
 		var spotifyConfig = config.getSpotify();
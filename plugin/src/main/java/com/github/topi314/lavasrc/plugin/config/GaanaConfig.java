@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 public class GaanaConfig {
 
     private int searchLimit = 20;
+    private int downloadConcurrency = 0;
     @Nullable
     private HttpProxyConfig proxy;
 
@@ -20,6 +21,14 @@ public class GaanaConfig {
         this.searchLimit = searchLimit;
     }
 
+    public int getDownloadConcurrency() {
+        return downloadConcurrency;
+    }
+
+    public void setDownloadConcurrency(int downloadConcurrency) {
+        this.downloadConcurrency = downloadConcurrency;
+    }
+
     @Nullable
     public HttpProxyConfig getProxy() {
         return proxy;
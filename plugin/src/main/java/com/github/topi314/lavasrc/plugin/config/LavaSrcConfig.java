@@ -14,6 +14,11 @@ public class LavaSrcConfig {
 		"ytsearch:\"" + ISRC_PATTERN + "\"",
 		"ytsearch:" + QUERY_PATTERN
 	};
+	private MirrorCacheConfig mirrorCache = new MirrorCacheConfig();
+	private MirrorRaceConfig mirrorRace = new MirrorRaceConfig();
+	private MirrorPreloadConfig mirrorPreload = new MirrorPreloadConfig();
+	private MirrorIndexConfig mirrorIndex = new MirrorIndexConfig();
+	private ResponseCacheConfig responseCache = new ResponseCacheConfig();
 
 	public String[] getProviders() {
 		return this.providers;
@@ -23,4 +28,44 @@ public class LavaSrcConfig {
 		this.providers = providers;
 	}
 
+	public MirrorCacheConfig getMirrorCache() {
+		return this.mirrorCache;
+	}
+
+	public void setMirrorCache(MirrorCacheConfig mirrorCache) {
+		this.mirrorCache = mirrorCache;
+	}
+
+	public MirrorRaceConfig getMirrorRace() {
+		return this.mirrorRace;
+	}
+
+	public void setMirrorRace(MirrorRaceConfig mirrorRace) {
+		this.mirrorRace = mirrorRace;
+	}
+
+	public MirrorPreloadConfig getMirrorPreload() {
+		return this.mirrorPreload;
+	}
+
+	public void setMirrorPreload(MirrorPreloadConfig mirrorPreload) {
+		this.mirrorPreload = mirrorPreload;
+	}
+
+	public MirrorIndexConfig getMirrorIndex() {
+		return this.mirrorIndex;
+	}
+
+	public void setMirrorIndex(MirrorIndexConfig mirrorIndex) {
+		this.mirrorIndex = mirrorIndex;
+	}
+
+	public ResponseCacheConfig getResponseCache() {
+		return this.responseCache;
+	}
+
+	public void setResponseCache(ResponseCacheConfig responseCache) {
+		this.responseCache = responseCache;
+	}
+
 }
@@ -0,0 +1,42 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class MirrorCacheConfig {
+
+	private boolean enabled = false;
+	private int maxSize = 10000;
+	private long ttl = 21600;
+	private long negativeTtl = 600;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getTtl() {
+		return this.ttl;
+	}
+
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+	public long getNegativeTtl() {
+		return this.negativeTtl;
+	}
+
+	public void setNegativeTtl(long negativeTtl) {
+		this.negativeTtl = negativeTtl;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class MirrorIndexConfig {
+
+	private boolean enabled = false;
+	private String path = "./lavasrc-mirror-index";
+	private long maxAge = 2592000;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public long getMaxAge() {
+		return this.maxAge;
+	}
+
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class MirrorPreloadConfig {
+
+	private boolean enabled = false;
+	private int threads = 2;
+	private int playlistLimit = 10;
+	private int maxEntries = 1000;
+	private long ttl = 600;
+	private double resolutionsPerSecond = 5;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getThreads() {
+		return this.threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getPlaylistLimit() {
+		return this.playlistLimit;
+	}
+
+	public void setPlaylistLimit(int playlistLimit) {
+		this.playlistLimit = playlistLimit;
+	}
+
+	public int getMaxEntries() {
+		return this.maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public long getTtl() {
+		return this.ttl;
+	}
+
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+	public double getResolutionsPerSecond() {
+		return this.resolutionsPerSecond;
+	}
+
+	public void setResolutionsPerSecond(double resolutionsPerSecond) {
+		this.resolutionsPerSecond = resolutionsPerSecond;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class MirrorRaceConfig {
+
+	private int providers = 1;
+	private long gracePeriod = 250;
+
+	public int getProviders() {
+		return this.providers;
+	}
+
+	public void setProviders(int providers) {
+		this.providers = providers;
+	}
+
+	public long getGracePeriod() {
+		return this.gracePeriod;
+	}
+
+	public void setGracePeriod(long gracePeriod) {
+		this.gracePeriod = gracePeriod;
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+import java.util.List;
+
+public class ResponseCacheConfig {
+
+	private boolean enabled = false;
+	private long maxSize = 33554432;
+	private long staleIfError = 3600;
+	private List<ResponseCachePolicyConfig> policies = List.of();
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public long getStaleIfError() {
+		return this.staleIfError;
+	}
+
+	public void setStaleIfError(long staleIfError) {
+		this.staleIfError = staleIfError;
+	}
+
+	public List<ResponseCachePolicyConfig> getPolicies() {
+		return this.policies;
+	}
+
+	public void setPolicies(List<ResponseCachePolicyConfig> policies) {
+		this.policies = policies;
+	}
+
+}
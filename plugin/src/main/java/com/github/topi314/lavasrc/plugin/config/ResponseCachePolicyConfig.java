@@ -0,0 +1,24 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class ResponseCachePolicyConfig {
+
+	private String pattern;
+	private long ttl;
+
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	public void setPattern(String pattern) {
+		this.pattern = pattern;
+	}
+
+	public long getTtl() {
+		return this.ttl;
+	}
+
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+}
@@ -13,6 +13,7 @@ public class SpotifyConfig {
 	private String countryCode = "US";
 	private int playlistLoadLimit = 6;
 	private int albumLoadLimit = 6;
+	private int pageConcurrency = 4;
 	private boolean resolveArtistsInSearch = true;
 	private boolean localFiles = false;
 	private boolean preferAnonymousToken = false;
@@ -66,6 +67,14 @@ public class SpotifyConfig {
 		this.albumLoadLimit = albumLoadLimit;
 	}
 
+	public int getPageConcurrency() {
+		return this.pageConcurrency;
+	}
+
+	public void setPageConcurrency(int pageConcurrency) {
+		this.pageConcurrency = pageConcurrency;
+	}
+
 	public boolean isResolveArtistsInSearch() {
 		return this.resolveArtistsInSearch;
 	}
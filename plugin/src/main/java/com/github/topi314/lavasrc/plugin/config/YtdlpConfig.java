@@ -11,6 +11,8 @@ public class YtdlpConfig {
 	private int searchLimit = 10;
 	private String[] customLoadArgs;
 	private String[] customPlaybackArgs;
+	private int readAheadSize = 1048576;
+	private YtdlpWorkersConfig workers = new YtdlpWorkersConfig();
 
 	public String getPath() {
 		return path;
@@ -44,4 +46,20 @@ public class YtdlpConfig {
 		this.customPlaybackArgs = customPlaybackArgs;
 	}
 
+	public int getReadAheadSize() {
+		return readAheadSize;
+	}
+
+	public void setReadAheadSize(int readAheadSize) {
+		this.readAheadSize = readAheadSize;
+	}
+
+	public YtdlpWorkersConfig getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(YtdlpWorkersConfig workers) {
+		this.workers = workers;
+	}
+
 }
@@ -0,0 +1,51 @@
+package com.github.topi314.lavasrc.plugin.config;
+
+public class YtdlpWorkersConfig {
+
+	private boolean enabled = false;
+	private String pythonPath = "python3";
+	private int maxWorkers = 4;
+	private int maxJobs = 100;
+	private long timeout = 30;
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getPythonPath() {
+		return this.pythonPath;
+	}
+
+	public void setPythonPath(String pythonPath) {
+		this.pythonPath = pythonPath;
+	}
+
+	public int getMaxWorkers() {
+		return this.maxWorkers;
+	}
+
+	public void setMaxWorkers(int maxWorkers) {
+		this.maxWorkers = maxWorkers;
+	}
+
+	public int getMaxJobs() {
+		return this.maxJobs;
+	}
+
+	public void setMaxJobs(int maxJobs) {
+		this.maxJobs = maxJobs;
+	}
+
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+}